@@ -57,7 +57,9 @@ diff -u <(printf '%s\n' \
     com.blackbuild.klum.cast.checks \
     com.blackbuild.klum.cast.checks.impl \
     com.blackbuild.klum.cast.compiler.internal.checks \
+    com.blackbuild.klum.cast.compiler.internal.stores \
     com.blackbuild.klum.cast.spi \
+    com.blackbuild.klum.cast.spi.internal \
     com.blackbuild.klum.cast.validation) "$work_dir/actual-packages.txt"
 
 classes="$work_dir/classpath-classes"
@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Synthetic validated annotations and uses shared by the benchmarks.
+ *
+ * <p>The library covers the interesting shapes of a validation plan: a nested composition, a repeatable container
+ * whose elements carry {@code @Filter} members, a member-level validation and an OR composition. Every generated use
+ * passes, so benchmarks measure validation work rather than diagnostic rendering.</p>
+ */
+final class BenchmarkFixtures {
+
+    static final String PACKAGE = "bench";
+
+    static final String LIBRARY = String.join("\n",
+            "package bench",
+            "import com.blackbuild.klum.cast.checks.*",
+            "import java.lang.annotation.*",
+            "",
+            "@Target(ElementType.ANNOTATION_TYPE)",
+            "@Retention(RetentionPolicy.RUNTIME)",
+            "@MustBeStatic",
+            "@NumberOfParameters(1)",
+            "@interface StaticCallback {}",
+            "",
+            "@Target([ElementType.METHOD, ElementType.FIELD])",
+            "@Retention(RetentionPolicy.RUNTIME)",
+            "@StaticCallback",
+            "@NeedsType(String)",
+            "@NeedsOneOf(value = ['name', 'alias'], whenOn = ElementType.FIELD)",
+            "@NeedsOneOf(value = ['name', 'id'], whenOn = ElementType.METHOD)",
+            "@interface Entry {",
+            "    String name() default ''",
+            "    String alias() default ''",
+            "    String id() default ''",
+            "    @OnlyOn(ElementType.FIELD) String format() default ''",
+            "}",
+            "",
+            "@Target(ElementType.ANNOTATION_TYPE)",
+            "@Retention(RetentionPolicy.RUNTIME)",
+            "@OneCheckMustMatch",
+            "@NumberOfParameters(0)",
+            "@MustBeStatic",
+            "@interface StaticOrWithoutParameters {}",
+            "",
+            "@Target(ElementType.METHOD)",
+            "@Retention(RetentionPolicy.RUNTIME)",
+            "@StaticOrWithoutParameters",
+            "@interface Factory {}",
+            "");
+
+    private BenchmarkFixtures() {}
+
+    /** @return a class loader that has compiled the validated annotation library */
+    static GroovyClassLoader compileLibrary() {
+        GroovyClassLoader loader = new GroovyClassLoader(BenchmarkFixtures.class.getClassLoader());
+        loader.parseClass(LIBRARY, "BenchmarkLibrary.groovy");
+        return loader;
+    }
+
+    /** @return the source of one synthetic class with four validated uses and one unrelated method */
+    static String unit(int index) {
+        return String.join("\n",
+                "package " + PACKAGE,
+                "class Unit" + index + " {",
+                "    @Entry(name = 'field') String field" + index,
+                "    @Entry(alias = 'other', format = 'plain') String other" + index,
+                "    @Entry(id = 'callback') static void callback" + index + "(int value) {}",
+                "    @Factory static Object create" + index + "() { null }",
+                "    void plain" + index + "() {}",
+                "}",
+                "");
+    }
+
+    /**
+     * @param library the loader providing the validated annotation types
+     * @param klumCast whether the KlumCast global transformation runs
+     * @return a fresh compilation unit
+     */
+    static CompilationUnit newUnit(GroovyClassLoader library, boolean klumCast) {
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        if (!klumCast) configuration.setDisabledGlobalASTTransformations(Set.of(KlumCastTransformation.class.getName()));
+        return new CompilationUnit(configuration, null, library);
+    }
+
+    /**
+     * Resolves a synthetic class without validating it, so that benchmarks can validate its uses directly.
+     *
+     * @return the resolved class node
+     */
+    static ClassNode analyze(GroovyClassLoader library, int index) {
+        CompilationUnit unit = newUnit(library, false);
+        unit.addSource("Unit" + index + ".groovy", unit(index));
+        unit.compile(Phases.SEMANTIC_ANALYSIS);
+        return unit.getAST().getModules().get(0).getClasses().get(0);
+    }
+
+    /** @return all uses of the library's annotations on the fields and methods of the class */
+    static List<Use> uses(ClassNode owner) {
+        List<Use> uses = new ArrayList<>();
+        for (FieldNode field : owner.getFields()) collect(field, uses);
+        for (MethodNode method : owner.getMethods()) collect(method, uses);
+        return uses;
+    }
+
+    private static void collect(AnnotatedNode target, List<Use> uses) {
+        for (AnnotationNode annotation : target.getAnnotations()) {
+            if (annotation.getClassNode().getName().startsWith(PACKAGE + ".")) uses.add(new Use(annotation, target));
+        }
+    }
+
+    /** One validated annotation use on a resolved target. */
+    static final class Use {
+        final AnnotationNode annotation;
+        final AnnotatedNode target;
+
+        Use(AnnotationNode annotation, AnnotatedNode target) {
+            this.annotation = annotation;
+            this.target = target;
+        }
+
+        /** Forgets an earlier validation, which would otherwise make the next one a no-op. */
+        void reset() {
+            annotation.removeNodeMetaData(ValidationHandler.METADATA_KEY);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.Filter;
+import com.blackbuild.klum.cast.checks.NeedsOneOf;
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of {@code @Filter} members, and the ways of reading their values: bound once per plan step through
+ * method handles, as validation plans do, against reading them reflectively with and without rediscovering the
+ * members, as every use did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FilterBenchmark {
+
+    private FilterRegistry filters;
+    private Annotation declaration;
+    private FilterHandler.BoundFilter[] bound;
+    private Method[] filterMembers;
+    private AnnotatedNode field;
+    private AnnotatedNode method;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        GroovyClassLoader library = BenchmarkFixtures.compileLibrary();
+        declaration = RepeatableAnnotationsSupport.getAllAnnotations(library.loadClass(BenchmarkFixtures.PACKAGE + ".Entry"))
+                .filter(annotation -> annotation instanceof NeedsOneOf
+                        && Arrays.asList(((NeedsOneOf) annotation).whenOn()).contains(ElementType.FIELD))
+                .findFirst()
+                .orElseThrow();
+        bound = FilterHandler.bind(declaration);
+        filterMembers = Arrays.stream(declaration.annotationType().getDeclaredMethods())
+                .filter(member -> member.isAnnotationPresent(Filter.class))
+                .toArray(Method[]::new);
+        filters = new FilterRegistry(new ClassResolver(), new ValidationProfile());
+        ClassNode owner = BenchmarkFixtures.analyze(library, 0);
+        field = owner.getField("field0");
+        method = owner.getMethods("callback0").get(0);
+    }
+
+    @Benchmark
+    public boolean isValidForMatchingTarget() {
+        return FilterHandler.isValidFor(filters, bound, declaration, field, null, List.of());
+    }
+
+    @Benchmark
+    public boolean isValidForOtherTarget() {
+        return FilterHandler.isValidFor(filters, bound, declaration, method, null, List.of());
+    }
+
+    @Benchmark
+    public Object bindThroughMethodHandles() {
+        return FilterHandler.bind(declaration);
+    }
+
+    @Benchmark
+    public void readReflectively(Blackhole blackhole) throws ReflectiveOperationException {
+        for (Method member : filterMembers) blackhole.consume(member.invoke(declaration));
+    }
+
+    @Benchmark
+    public void scanAndReadReflectively(Blackhole blackhole) throws ReflectiveOperationException {
+        for (Method member : declaration.annotationType().getDeclaredMethods()) {
+            if (member.isAnnotationPresent(Filter.class)) blackhole.consume(member.invoke(declaration));
+        }
+    }
+}
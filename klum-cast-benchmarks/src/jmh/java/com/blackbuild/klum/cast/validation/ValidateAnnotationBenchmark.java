@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.Diagnostic;
+import groovy.lang.GroovyClassLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of pre-built annotation uses, without parsing and resolving. {@link #coldScope} creates a new compilation
+ * scope per use like the public entry point; {@link #sharedScope} keeps one scope, as all uses of a compilation do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValidateAnnotationBenchmark {
+
+    private List<BenchmarkFixtures.Use> uses;
+    private CompilationScope scope;
+
+    @Setup
+    public void setUp() {
+        GroovyClassLoader library = BenchmarkFixtures.compileLibrary();
+        uses = BenchmarkFixtures.uses(BenchmarkFixtures.analyze(library, 0));
+        scope = new CompilationScope();
+        for (BenchmarkFixtures.Use use : uses) {
+            List<Diagnostic> diagnostics = ValidationHandler.validateAnnotation(use.annotation, use.target);
+            if (!diagnostics.isEmpty()) throw new IllegalStateException("Benchmark fixture does not pass: " + diagnostics);
+        }
+    }
+
+    @Benchmark
+    public void coldScope(Blackhole blackhole) {
+        for (BenchmarkFixtures.Use use : uses) {
+            use.reset();
+            blackhole.consume(ValidationHandler.validateAnnotation(use.annotation, use.target));
+        }
+    }
+
+    @Benchmark
+    public void sharedScope(Blackhole blackhole) {
+        for (BenchmarkFixtures.Use use : uses) {
+            use.reset();
+            blackhole.consume(ValidationHandler.validateAnnotation(use.annotation, use.target, scope, null));
+        }
+    }
+}
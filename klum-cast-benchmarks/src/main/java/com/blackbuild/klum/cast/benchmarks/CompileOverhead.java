@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.benchmarks;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Measures what KlumCast adds to the compilation of a generated corpus.
+ *
+ * <p>The corpus is compiled up to class generation, once with the KlumCast compiler artifact on the compilation
+ * classpath and once with only the annotations and SPI artifacts. Each mode keeps its classpath loader across runs,
+ * as a build daemon keeps its compiler class loader, while every run compiles with a fresh {@link GroovyClassLoader}.
+ * Each run compiles the corpus once per mode, alternating their order so that drift affects both equally. The overhead
+ * is the median of the per-run relative differences, which is less sensitive to a noisy machine than comparing the
+ * medians of both modes.</p>
+ *
+ * <p>Arguments are {@code name=value} pairs:</p>
+ * <ul>
+ *     <li>{@code with} and {@code without}: the compilation classpaths of both modes</li>
+ *     <li>{@code runs} and {@code warmups}: measured and discarded runs per mode</li>
+ *     <li>{@code report}: a properties file receiving the measurement</li>
+ *     <li>{@code record}: a baseline file to write, keeping its tolerance</li>
+ *     <li>{@code verify}: a baseline file; the corpus settings are taken from it and the run fails if the overhead
+ *     exceeds the recorded one by more than its tolerance</li>
+ * </ul>
+ * <p>Corpus settings are read from {@code corpus.*} system properties, see {@link CorpusGenerator.Settings}.</p>
+ */
+public final class CompileOverhead {
+
+    static final String TRANSFORMATION = "com.blackbuild.klum.cast.validation.KlumCastTransformation";
+    static final String OVERHEAD = "overhead.percent";
+    static final String TOLERANCE = "tolerance.percent";
+    static final double DEFAULT_TOLERANCE = 10;
+
+    private final URL[] withKlumCast;
+    private final URL[] withoutKlumCast;
+    private final CorpusGenerator corpus;
+
+    CompileOverhead(URL[] withKlumCast, URL[] withoutKlumCast, CorpusGenerator corpus) {
+        this.withKlumCast = withKlumCast;
+        this.withoutKlumCast = withoutKlumCast;
+        this.corpus = corpus;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        Path verify = path(options.get("verify"));
+        Path record = path(options.get("record"));
+        Properties baseline = verify != null ? load(verify) : record != null && Files.exists(record) ? load(record) : new Properties();
+
+        Properties settingsSource = new Properties();
+        settingsSource.putAll(baseline);
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("corpus."))
+                .forEach(name -> settingsSource.setProperty(name, System.getProperty(name)));
+        CorpusGenerator.Settings settings = CorpusGenerator.Settings.from(settingsSource);
+
+        CompileOverhead harness = new CompileOverhead(urls(options.get("with")), urls(options.get("without")),
+                new CorpusGenerator(settings));
+        Result result = harness.measure(Integer.parseInt(options.getOrDefault("warmups", "10")),
+                Integer.parseInt(options.getOrDefault("runs", "15")));
+
+        System.out.println("Corpus: " + settings);
+        System.out.println("Groovy " + GroovySystem.getVersion() + ", Java " + System.getProperty("java.version"));
+        System.out.println(result);
+
+        Properties measured = new Properties();
+        settings.storeIn(measured);
+        result.storeIn(measured);
+        if (options.containsKey("report")) store(measured, path(options.get("report")), "KlumCast compile overhead");
+        if (record != null) {
+            measured.setProperty(TOLERANCE, baseline.getProperty(TOLERANCE, String.valueOf(DEFAULT_TOLERANCE)));
+            store(measured, record, "KlumCast compile overhead baseline, recorded with Groovy " + GroovySystem.getVersion()
+                    + " on Java " + System.getProperty("java.version"));
+            System.out.println("Recorded baseline " + record);
+        }
+        if (verify != null) {
+            double allowed = Double.parseDouble(baseline.getProperty(OVERHEAD))
+                    + Double.parseDouble(baseline.getProperty(TOLERANCE, String.valueOf(DEFAULT_TOLERANCE)));
+            if (result.getOverhead() > allowed) {
+                System.err.printf(Locale.ROOT, "Compile overhead %.1f%% exceeds the baseline %s%% plus tolerance %s%%%n",
+                        result.getOverhead(), baseline.getProperty(OVERHEAD), baseline.getProperty(TOLERANCE, String.valueOf(DEFAULT_TOLERANCE)));
+                System.exit(1);
+            }
+            System.out.printf(Locale.ROOT, "Compile overhead is within %.1f%%%n", allowed);
+        }
+    }
+
+    /**
+     * Compiles the corpus in both modes.
+     *
+     * @param warmups runs per mode that are discarded
+     * @param runs measured runs per mode
+     * @return the median compile times and overhead
+     */
+    Result measure(int warmups, int runs) throws IOException {
+        Path library = Files.createTempDirectory("klum-cast-corpus");
+        try {
+            compileLibrary(library);
+            try (URLClassLoader withLoader = classpath(withKlumCast, library, true);
+                 URLClassLoader withoutLoader = classpath(withoutKlumCast, library, false)) {
+                List<Long> with = new ArrayList<>();
+                List<Long> without = new ArrayList<>();
+                for (int run = 0; run < warmups + runs; run++) {
+                    boolean measured = run >= warmups;
+                    // alternate the order, so that neither mode always runs on a JVM the other one just warmed up
+                    if (run % 2 == 0) {
+                        long time = compile(withLoader);
+                        if (measured) with.add(time);
+                        time = compile(withoutLoader);
+                        if (measured) without.add(time);
+                    } else {
+                        long time = compile(withoutLoader);
+                        if (measured) without.add(time);
+                        time = compile(withLoader);
+                        if (measured) with.add(time);
+                    }
+                }
+                List<Double> overheads = new ArrayList<>();
+                for (int run = 0; run < runs; run++) {
+                    overheads.add(100.0 * (with.get(run) - without.get(run)) / without.get(run));
+                }
+                return new Result(median(with), median(without), median(overheads), runs);
+            }
+        } finally {
+            delete(library);
+        }
+    }
+
+    private void compileLibrary(Path output) throws IOException {
+        try (URLClassLoader classpath = new URLClassLoader(withoutKlumCast, CompileOverhead.class.getClassLoader());
+             GroovyClassLoader loader = new GroovyClassLoader(classpath)) {
+            CompilerConfiguration configuration = new CompilerConfiguration();
+            configuration.setTargetDirectory(output.toFile());
+            CompilationUnit unit = new CompilationUnit(configuration, null, loader);
+            unit.addSource("CorpusLibrary.groovy", corpus.library());
+            unit.compile();
+        }
+    }
+
+    private static URLClassLoader classpath(URL[] classpath, Path library, boolean klumCast) throws IOException {
+        URL[] urls = Arrays.copyOf(classpath, classpath.length + 1);
+        urls[classpath.length] = library.toUri().toURL();
+        URLClassLoader loader = new URLClassLoader(urls, CompileOverhead.class.getClassLoader());
+        if (isPresent(loader, TRANSFORMATION) != klumCast) {
+            loader.close();
+            throw new IllegalStateException("The classpath " + Arrays.toString(classpath) + (klumCast ? " lacks " : " contains ")
+                    + TRANSFORMATION);
+        }
+        return loader;
+    }
+
+    private long compile(ClassLoader classpath) throws IOException {
+        try (GroovyClassLoader loader = new GroovyClassLoader(classpath)) {
+            CompilationUnit unit = new CompilationUnit(new CompilerConfiguration(), null, loader);
+            corpus.units().forEach(unit::addSource);
+            // garbage of the previous run must not be collected on this run's clock
+            System.gc();
+            long start = System.nanoTime();
+            unit.compile(Phases.CLASS_GENERATION);
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static boolean isPresent(ClassLoader loader, String name) {
+        try {
+            Class.forName(name, false, loader);
+            return true;
+        } catch (ClassNotFoundException exception) {
+            return false;
+        }
+    }
+
+    private static <T extends Number & Comparable<T>> double median(List<T> values) {
+        List<T> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1
+                ? sorted.get(middle).doubleValue()
+                : (sorted.get(middle - 1).doubleValue() + sorted.get(middle).doubleValue()) / 2;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String argument : args) {
+            int separator = argument.indexOf('=');
+            if (separator < 1) throw new IllegalArgumentException("Expected name=value, got " + argument);
+            options.put(argument.substring(0, separator), argument.substring(separator + 1));
+        }
+        if (!options.containsKey("with") || !options.containsKey("without")) {
+            throw new IllegalArgumentException("Both the with and without classpaths are required");
+        }
+        return options;
+    }
+
+    private static URL[] urls(String classpath) {
+        return Arrays.stream(classpath.split(File.pathSeparator))
+                .filter(entry -> !entry.isEmpty())
+                .map(entry -> {
+                    try { return Paths.get(entry).toUri().toURL(); }
+                    catch (MalformedURLException exception) { throw new IllegalArgumentException("Invalid classpath entry " + entry, exception); }
+                })
+                .toArray(URL[]::new);
+    }
+
+    private static Path path(String value) {
+        return value == null || value.isEmpty() ? null : Paths.get(value);
+    }
+
+    private static Properties load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void store(Properties properties, Path file, String comment) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, comment);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            paths.sorted(Collections.reverseOrder()).forEach(path -> {
+                try { Files.delete(path); }
+                catch (IOException exception) { throw new UncheckedIOException(exception); }
+            });
+        }
+    }
+
+    /** The median compile times of both modes and the median overhead of KlumCast. */
+    static final class Result {
+        private final double withKlumCast;
+        private final double withoutKlumCast;
+        private final double overhead;
+        private final int runs;
+
+        Result(double withKlumCast, double withoutKlumCast, double overhead, int runs) {
+            this.withKlumCast = withKlumCast;
+            this.withoutKlumCast = withoutKlumCast;
+            this.overhead = overhead;
+            this.runs = runs;
+        }
+
+        /** @return the time KlumCast adds, in percent of the compilation without it */
+        double getOverhead() { return overhead; }
+
+        void storeIn(Properties properties) {
+            properties.setProperty("compile.with.millis", String.format(Locale.ROOT, "%.1f", withKlumCast / 1e6));
+            properties.setProperty("compile.without.millis", String.format(Locale.ROOT, "%.1f", withoutKlumCast / 1e6));
+            properties.setProperty("runs", String.valueOf(runs));
+            properties.setProperty(OVERHEAD, String.format(Locale.ROOT, "%.1f", getOverhead()));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Median of %d runs: %.1f ms with KlumCast, %.1f ms without, overhead %.1f%%",
+                    runs, withKlumCast / 1e6, withoutKlumCast / 1e6, getOverhead());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Generates a synthetic code base: a library of validated annotation types and classes using them.
+ *
+ * <p>The shape of the corpus is controlled by {@link Settings}: the number of classes and members, the share of members
+ * carrying a validated annotation, the depth of the composition chain below each validated annotation, the share of
+ * annotation types validated through an OR composition, and whether repeatable containers and {@code @Filter} members
+ * are used. The same settings always produce the same corpus. Every generated use passes validation, so a compilation
+ * of the corpus measures validation work rather than error reporting.</p>
+ */
+public final class CorpusGenerator {
+
+    static final String LIBRARY_PACKAGE = "corpus.lib";
+    static final String PACKAGE = "corpus";
+
+    private final Settings settings;
+
+    public CorpusGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    /** @return the source of the annotation library, which must be compiled before the classes using it */
+    public String library() {
+        StringBuilder source = new StringBuilder()
+                .append("package ").append(LIBRARY_PACKAGE).append('\n')
+                .append("import com.blackbuild.klum.cast.checks.*\n")
+                .append("import java.lang.annotation.*\n\n");
+        for (int level = 0; level < settings.compositionDepth; level++) {
+            source.append("@Target(ElementType.ANNOTATION_TYPE)\n@Retention(RetentionPolicy.RUNTIME)\n");
+            if (level == 0) source.append("@MustBeStatic\n@NumberOfParameters(1)\n");
+            else source.append("@Level").append(level - 1).append('\n');
+            source.append("@interface Level").append(level).append(" {}\n\n");
+        }
+        source.append("@Target(ElementType.ANNOTATION_TYPE)\n@Retention(RetentionPolicy.RUNTIME)\n")
+                .append("@OneCheckMustMatch\n@MustBeStatic\n@NumberOfParameters(0)\n")
+                .append("@interface StaticOrWithoutParameters {}\n\n");
+        for (int type = 0; type < settings.annotationTypes; type++) {
+            source.append("@Target([ElementType.FIELD, ElementType.METHOD])\n@Retention(RetentionPolicy.RUNTIME)\n");
+            if (isOrComposition(type)) source.append("@StaticOrWithoutParameters\n");
+            else if (settings.compositionDepth > 0) source.append("@Level").append(settings.compositionDepth - 1).append('\n');
+            else source.append("@MustBeStatic\n@NumberOfParameters(1)\n");
+            source.append("@NeedsType(String)\n");
+            String whenOnField = settings.filters ? ", whenOn = ElementType.FIELD" : "";
+            String whenOnMethod = settings.filters ? ", whenOn = ElementType.METHOD" : "";
+            source.append("@NeedsOneOf(value = ['name', 'alias']").append(whenOnField).append(")\n");
+            if (settings.repeatable) source.append("@NeedsOneOf(value = ['name', 'id']").append(whenOnMethod).append(")\n");
+            source.append("@interface Validated").append(type).append(" {\n")
+                    .append("    String name() default ''\n")
+                    .append("    String alias() default ''\n")
+                    .append("    String id() default ''\n");
+            if (settings.filters) source.append("    @OnlyOn(ElementType.FIELD) String format() default ''\n");
+            source.append("}\n\n");
+        }
+        return source.toString();
+    }
+
+    /** @return the generated classes keyed by their source file name, in generation order */
+    public Map<String, String> units() {
+        Random random = new Random(settings.seed);
+        Map<String, String> units = new LinkedHashMap<>();
+        for (int index = 0; index < settings.classes; index++) {
+            units.put("Unit" + index + ".groovy", unit(index, random));
+        }
+        return units;
+    }
+
+    private String unit(int index, Random random) {
+        StringBuilder source = new StringBuilder()
+                .append("package ").append(PACKAGE).append('\n')
+                .append("import ").append(LIBRARY_PACKAGE).append(".*\n\n")
+                .append("class Unit").append(index).append(" {\n");
+        List<String> fields = new ArrayList<>();
+        for (int member = 0; member < settings.membersPerClass; member++) {
+            String annotation = random.nextDouble() < settings.density
+                    ? "@Validated" + random.nextInt(settings.annotationTypes) + "(name = 'member" + member + "') "
+                    : "";
+            if (member % 2 == 0) {
+                String field = "field" + member;
+                fields.add(field);
+                source.append("    ").append(annotation).append("String ").append(field).append('\n');
+            } else {
+                source.append("    ").append(annotation).append("static void method").append(member)
+                        .append("(Object value) {\n        if (value != null) println value.toString().trim()\n    }\n");
+            }
+        }
+        source.append("    String describe() {\n        \"Unit").append(index).append(": ")
+                .append(String.join(", ", fields.stream().map(field -> "${" + field + "}").toArray(String[]::new)))
+                .append("\"\n    }\n}\n");
+        return source.toString();
+    }
+
+    private boolean isOrComposition(int type) {
+        return type < Math.round(settings.orShare * settings.annotationTypes);
+    }
+
+    /** The shape of a generated corpus. */
+    public static final class Settings {
+        int classes = 200;
+        int membersPerClass = 8;
+        int annotationTypes = 4;
+        double density = 0.5;
+        int compositionDepth = 2;
+        double orShare = 0.25;
+        boolean repeatable = true;
+        boolean filters = true;
+        long seed = 1;
+
+        /**
+         * Reads settings from properties named like the fields, {@code corpus.classes} for example. Missing
+         * properties keep their defaults.
+         */
+        public static Settings from(Properties properties) {
+            Settings settings = new Settings();
+            settings.classes = Integer.parseInt(properties.getProperty("corpus.classes", String.valueOf(settings.classes)));
+            settings.membersPerClass = Integer.parseInt(properties.getProperty("corpus.membersPerClass", String.valueOf(settings.membersPerClass)));
+            settings.annotationTypes = Integer.parseInt(properties.getProperty("corpus.annotationTypes", String.valueOf(settings.annotationTypes)));
+            settings.density = Double.parseDouble(properties.getProperty("corpus.density", String.valueOf(settings.density)));
+            settings.compositionDepth = Integer.parseInt(properties.getProperty("corpus.compositionDepth", String.valueOf(settings.compositionDepth)));
+            settings.orShare = Double.parseDouble(properties.getProperty("corpus.orShare", String.valueOf(settings.orShare)));
+            settings.repeatable = Boolean.parseBoolean(properties.getProperty("corpus.repeatable", String.valueOf(settings.repeatable)));
+            settings.filters = Boolean.parseBoolean(properties.getProperty("corpus.filters", String.valueOf(settings.filters)));
+            settings.seed = Long.parseLong(properties.getProperty("corpus.seed", String.valueOf(settings.seed)));
+            if (settings.classes < 1 || settings.membersPerClass < 1 || settings.annotationTypes < 1 || settings.compositionDepth < 0) {
+                throw new IllegalArgumentException("Corpus needs at least one class, member and annotation type: " + settings);
+            }
+            if (settings.density < 0 || settings.density > 1 || settings.orShare < 0 || settings.orShare > 1) {
+                throw new IllegalArgumentException("Corpus density and OR share must be between 0 and 1: " + settings);
+            }
+            return settings;
+        }
+
+        /** Writes the settings in the form read by {@link #from(Properties)}. */
+        public void storeIn(Properties properties) {
+            properties.setProperty("corpus.classes", String.valueOf(classes));
+            properties.setProperty("corpus.membersPerClass", String.valueOf(membersPerClass));
+            properties.setProperty("corpus.annotationTypes", String.valueOf(annotationTypes));
+            properties.setProperty("corpus.density", String.valueOf(density));
+            properties.setProperty("corpus.compositionDepth", String.valueOf(compositionDepth));
+            properties.setProperty("corpus.orShare", String.valueOf(orShare));
+            properties.setProperty("corpus.repeatable", String.valueOf(repeatable));
+            properties.setProperty("corpus.filters", String.valueOf(filters));
+            properties.setProperty("corpus.seed", String.valueOf(seed));
+        }
+
+        @Override
+        public String toString() {
+            return classes + " classes x " + membersPerClass + " members, " + annotationTypes + " annotation types, density "
+                    + density + ", composition depth " + compositionDepth + ", OR share " + orShare + ", repeatable "
+                    + repeatable + ", filters " + filters + ", seed " + seed;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.benchmarks
+
+import spock.lang.Specification
+
+class CorpusGeneratorTest extends Specification {
+
+    def "generated corpora pass validation"() {
+        given:
+        def properties = new Properties()
+        properties.putAll(settings)
+        def generator = new CorpusGenerator(CorpusGenerator.Settings.from(properties))
+        def loader = new GroovyClassLoader(getClass().classLoader)
+
+        when:
+        loader.parseClass(generator.library(), 'CorpusLibrary.groovy')
+        def units = generator.units()
+        units.each { name, source -> loader.parseClass(source, name) }
+
+        then:
+        noExceptionThrown()
+        units.size() == settings['corpus.classes'].toInteger()
+
+        where:
+        settings << [
+                ['corpus.classes': '5'],
+                ['corpus.classes': '5', 'corpus.density': '1', 'corpus.compositionDepth': '0', 'corpus.orShare': '0'],
+                ['corpus.classes': '5', 'corpus.density': '1', 'corpus.compositionDepth': '4', 'corpus.orShare': '1'],
+                ['corpus.classes': '5', 'corpus.density': '1', 'corpus.repeatable': 'false', 'corpus.filters': 'false']
+        ]
+    }
+
+    def "the same settings generate the same corpus"() {
+        given:
+        def properties = new Properties()
+        properties.setProperty('corpus.classes', '3')
+
+        expect:
+        new CorpusGenerator(CorpusGenerator.Settings.from(properties)).units() ==
+                new CorpusGenerator(CorpusGenerator.Settings.from(properties)).units()
+    }
+
+    def "generated uses are validated"() {
+        given:
+        def properties = new Properties()
+        properties.putAll('corpus.classes': '1', 'corpus.density': '1', 'corpus.annotationTypes': '1', 'corpus.orShare': '0')
+        def generator = new CorpusGenerator(CorpusGenerator.Settings.from(properties))
+        def loader = new GroovyClassLoader(getClass().classLoader)
+        loader.parseClass(generator.library(), 'CorpusLibrary.groovy')
+
+        when: 'a generated static method loses its modifier'
+        loader.parseClass(generator.units().values().first().replace('static void', 'void'), 'Broken.groovy')
+
+        then:
+        def failure = thrown(org.codehaus.groovy.control.MultipleCompilationErrorsException)
+        failure.message.contains('static')
+    }
+}
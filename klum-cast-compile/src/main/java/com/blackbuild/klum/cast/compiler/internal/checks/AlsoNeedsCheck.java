@@ -27,10 +27,12 @@ import com.blackbuild.klum.cast.checks.AlsoNeeds;
 import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckContext;
 import com.blackbuild.klum.cast.spi.Diagnostic;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 
 import java.util.Arrays;
 import java.util.List;
 
+@ThreadSafe
 public final class AlsoNeedsCheck implements Check {
     @Override public List<Diagnostic> check(CheckContext context) {
         AlsoNeeds control = (AlsoNeeds) context.getControlAnnotation().orElseThrow(() -> new IllegalStateException("AlsoNeeds requires a control annotation"));
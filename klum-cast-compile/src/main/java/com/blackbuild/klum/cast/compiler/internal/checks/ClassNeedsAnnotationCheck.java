@@ -27,16 +27,15 @@ import com.blackbuild.klum.cast.checks.ClassNeedsAnnotation;
 import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckContext;
 import com.blackbuild.klum.cast.spi.Diagnostic;
-import org.codehaus.groovy.ast.ClassHelper;
-import org.codehaus.groovy.ast.ClassNode;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 
 import java.util.List;
 
+@ThreadSafe
 public final class ClassNeedsAnnotationCheck implements Check {
     @Override public List<Diagnostic> check(CheckContext context) {
         ClassNeedsAnnotation control = (ClassNeedsAnnotation) context.getControlAnnotation().orElseThrow(() -> new IllegalStateException("ClassNeedsAnnotation requires a control annotation"));
-        ClassNode target = context.getTarget() instanceof ClassNode ? (ClassNode) context.getTarget() : context.getTarget().getDeclaringClass();
-        if (target.getAnnotations(ClassHelper.make(control.value())).isEmpty()) return Checks.failure(getClass(), context,
+        if (!context.getAnnotationIndex().isClassAnnotatedWith(control.value().getName())) return Checks.failure(getClass(), context,
                 String.format(control.message(), context.getValidatedAnnotation().getClassNode().getNameWithoutPackage(), control.value().getSimpleName()));
         return List.of();
     }
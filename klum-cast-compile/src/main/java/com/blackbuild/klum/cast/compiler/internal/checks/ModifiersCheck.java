@@ -28,12 +28,14 @@ import com.blackbuild.klum.cast.checks.impl.ValidationException;
 
 import com.blackbuild.klum.cast.checks.ForbiddenModifiers;
 import com.blackbuild.klum.cast.checks.NeedsModifiers;
+import com.blackbuild.klum.cast.spi.Deterministic;
 import org.codehaus.groovy.ast.*;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 
+@Deterministic
 public class ModifiersCheck extends KlumCastCheck<Annotation> {
     @Override
     protected void doCheck(AnnotationNode annotationToCheck, AnnotatedNode target) throws ValidationException {
@@ -25,11 +25,15 @@ package com.blackbuild.klum.cast.compiler.internal.checks;
 
 import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Deterministic;
 import com.blackbuild.klum.cast.spi.Diagnostic;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 import org.codehaus.groovy.ast.MethodNode;
 
 import java.util.List;
 
+@Deterministic
+@ThreadSafe
 public final class MustBeStaticCheck implements Check {
     @Override public List<Diagnostic> check(CheckContext context) {
         if (!((MethodNode) context.getTarget()).isStatic()) return Checks.failure(getClass(), context,
@@ -27,11 +27,13 @@ import com.blackbuild.klum.cast.checks.MutuallyExclusive;
 import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckContext;
 import com.blackbuild.klum.cast.spi.Diagnostic;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Arrays;
 
+@ThreadSafe
 public final class MutuallyExclusiveCheck implements Check {
     @Override public List<Diagnostic> check(CheckContext context) {
         MutuallyExclusive control = (MutuallyExclusive) context.getControlAnnotation().orElseThrow(() -> new IllegalStateException("MutuallyExclusive requires a control annotation"));
@@ -26,11 +26,13 @@ package com.blackbuild.klum.cast.compiler.internal.checks;
 import com.blackbuild.klum.cast.checks.impl.KlumCastCheck;
 
 import com.blackbuild.klum.cast.checks.NeedsType;
+import com.blackbuild.klum.cast.spi.Deterministic;
 import com.blackbuild.klum.cast.validation.AstSupport;
 import org.codehaus.groovy.ast.*;
 
 import java.util.Arrays;
 
+@Deterministic
 public class NeedsTypeCheck extends KlumCastCheck<NeedsType> {
     @Override
     protected void doCheck(AnnotationNode annotationToCheck, AnnotatedNode target) {
@@ -23,25 +23,24 @@
  */
 package com.blackbuild.klum.cast.compiler.internal.checks;
 
-import com.blackbuild.klum.cast.checks.impl.KlumCastCheck;
-
 import com.blackbuild.klum.cast.checks.NotTogetherWith;
-import org.codehaus.groovy.ast.AnnotatedNode;
-import org.codehaus.groovy.ast.AnnotationNode;
-import org.codehaus.groovy.ast.ClassNode;
+import com.blackbuild.klum.cast.spi.Check;
+import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Diagnostic;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-public class NotTogetherWithCheck extends KlumCastCheck<NotTogetherWith> {
-    @Override
-    protected void doCheck(AnnotationNode annotationToCheck, AnnotatedNode target) {
-        Set<String> forbiddenCoAnnotations = Arrays.stream(controlAnnotation.value()).map(Class::getName).collect(Collectors.toSet());
-        if (target.getAnnotations().stream()
-                .map(AnnotationNode::getClassNode)
-                .map(ClassNode::getName)
-                .anyMatch(forbiddenCoAnnotations::contains))
-            throw new IllegalStateException("Not allowed to use " + annotationToCheck.getClassNode().getName() + " together with " + forbiddenCoAnnotations + ".");
+@ThreadSafe
+public final class NotTogetherWithCheck implements Check {
+    @Override public List<Diagnostic> check(CheckContext context) {
+        NotTogetherWith control = (NotTogetherWith) context.getControlAnnotation().orElseThrow(() -> new IllegalStateException("NotTogetherWith requires a control annotation"));
+        Set<String> forbiddenCoAnnotations = Arrays.stream(control.value()).map(Class::getName).collect(Collectors.toSet());
+        if (context.getAnnotationIndex().getAnnotationNames(context.getTarget()).stream().anyMatch(forbiddenCoAnnotations::contains))
+            return Checks.failure(getClass(), context, "Not allowed to use " + context.getValidatedAnnotation().getClassNode().getName() + " together with " + forbiddenCoAnnotations + ".");
+        return List.of();
     }
 }
@@ -26,11 +26,15 @@ package com.blackbuild.klum.cast.compiler.internal.checks;
 import com.blackbuild.klum.cast.checks.NumberOfParameters;
 import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Deterministic;
 import com.blackbuild.klum.cast.spi.Diagnostic;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 import org.codehaus.groovy.ast.MethodNode;
 
 import java.util.List;
 
+@Deterministic
+@ThreadSafe
 public final class NumberOfParametersCheck implements Check {
     @Override public List<Diagnostic> check(CheckContext context) {
         NumberOfParameters control = (NumberOfParameters) context.getControlAnnotation().orElseThrow(() -> new IllegalStateException("NumberOfParameters requires a control annotation"));
@@ -23,22 +23,30 @@
  */
 package com.blackbuild.klum.cast.compiler.internal.checks;
 
-import com.blackbuild.klum.cast.checks.UniquePerClass;
-import com.blackbuild.klum.cast.spi.Check;
+import com.blackbuild.klum.cast.spi.AnnotationIndex;
+import com.blackbuild.klum.cast.spi.BatchCheck;
 import com.blackbuild.klum.cast.spi.CheckContext;
 import com.blackbuild.klum.cast.spi.Diagnostic;
-import org.codehaus.groovy.ast.AnnotatedNode;
-import org.codehaus.groovy.ast.ClassNode;
+import com.blackbuild.klum.cast.spi.ThreadSafe;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
-public final class UniquePerClassCheck implements Check {
-    private static final String METADATA_KEY = UniquePerClass.class.getName();
+@ThreadSafe
+public final class UniquePerClassCheck implements BatchCheck {
+    @Override public Map<CheckContext, List<Diagnostic>> checkAll(List<CheckContext> contexts) {
+        Map<CheckContext, List<Diagnostic>> result = new IdentityHashMap<>();
+        for (CheckContext context : contexts.subList(1, contexts.size())) result.put(context, duplicate(context, context.getAnnotationIndex()));
+        return result;
+    }
+    // OR branches are checked per use, so they compare against the first use of the validated annotation in the class
     @Override public List<Diagnostic> check(CheckContext context) {
-        ClassNode owner = context.getTarget() instanceof ClassNode ? (ClassNode) context.getTarget() : context.getTarget().getDeclaringClass();
-        AnnotatedNode existing = owner.getNodeMetaData(METADATA_KEY);
-        if (existing != null) return Checks.failure(getClass(), context, "Annotation " + context.getValidatedAnnotation().getClassNode().getName() + " is used multiple times in class " + owner.getName());
-        owner.setNodeMetaData(METADATA_KEY, context.getTarget());
-        return List.of();
+        AnnotationIndex index = context.getAnnotationIndex();
+        List<?> uses = index.getAnnotatedNodes(context.getValidatedAnnotation().getClassNode().getName());
+        return uses.isEmpty() || uses.get(0) == context.getTarget() ? List.of() : duplicate(context, index);
+    }
+    private List<Diagnostic> duplicate(CheckContext context, AnnotationIndex index) {
+        return Checks.failure(getClass(), context, "Annotation " + context.getValidatedAnnotation().getClassNode().getName() + " is used multiple times in class " + index.getOwner().getName());
     }
 }
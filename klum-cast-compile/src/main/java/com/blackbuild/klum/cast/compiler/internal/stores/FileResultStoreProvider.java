@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.compiler.internal.stores;
+
+import com.blackbuild.klum.cast.spi.ResultStore;
+import com.blackbuild.klum.cast.spi.ResultStoreProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Stores passing results as empty marker files in a directory, for example a network share mounted on every build
+ * agent. Markers are spread over subdirectories named after the first two characters of their key.
+ */
+public final class FileResultStoreProvider implements ResultStoreProvider {
+
+    @Override
+    public ResultStore open(URI location) throws IOException {
+        if (!"file".equals(location.getScheme())) return null;
+        Path directory = Path.of(location);
+        Files.createDirectories(directory);
+        return new FileResultStore(directory);
+    }
+
+    private static final class FileResultStore implements ResultStore {
+        private final Path directory;
+
+        private FileResultStore(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public boolean hasPassed(String key) {
+            return Files.exists(marker(key));
+        }
+
+        @Override
+        public void passed(String key) throws IOException {
+            Path marker = marker(key);
+            Files.createDirectories(marker.getParent());
+            // creating an empty file is atomic, so concurrent agents never see a partial entry
+            try { Files.createFile(marker); }
+            catch (FileAlreadyExistsException ignored) { /* recorded by another build */ }
+        }
+
+        private Path marker(String key) {
+            return directory.resolve(key.substring(0, 2)).resolve(key);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.compiler.internal.stores;
+
+import com.blackbuild.klum.cast.spi.ResultStore;
+import com.blackbuild.klum.cast.spi.ResultStoreProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Stores passing results on an HTTP server, addressing each key as a resource below the configured base URI.
+ *
+ * <p>A lookup is a {@code GET} of {@code <base>/<key>}: {@code 200} means passed, {@code 404} means unknown. Recording
+ * a result is a {@code PUT} of an empty body to the same resource. Any HTTP cache that supports these two verbs, or a
+ * plain WebDAV directory, can serve as a store.</p>
+ *
+ * <p>A stored key makes every agent skip the validation of matching source units, so whoever can write to the store
+ * decides which units are validated. Keys are derived from source content and therefore predictable. The store is
+ * only opened with a bearer token from the {@code klumcast.store.token} system property or the
+ * {@code KLUMCAST_STORE_TOKEN} environment variable, which is sent with every request. The server must reject
+ * requests without a valid token, and should only accept {@code PUT}s from trusted build agents.</p>
+ */
+public final class HttpResultStoreProvider implements ResultStoreProvider {
+
+    static final String TOKEN_PROPERTY = "klumcast.store.token";
+    static final String TOKEN_VARIABLE = "KLUMCAST_STORE_TOKEN";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Override
+    public ResultStore open(URI location) throws IOException {
+        if (!"http".equals(location.getScheme()) && !"https".equals(location.getScheme())) return null;
+        String token = System.getProperty(TOKEN_PROPERTY, System.getenv(TOKEN_VARIABLE));
+        if (token == null || token.isBlank()) {
+            throw new IOException("The HTTP result store " + location + " requires a bearer token in the " + TOKEN_PROPERTY
+                    + " system property or the " + TOKEN_VARIABLE + " environment variable");
+        }
+        String base = location.toString();
+        return new HttpResultStore(base.endsWith("/") ? base : base + "/", "Bearer " + token.strip());
+    }
+
+    private static final class HttpResultStore implements ResultStore {
+        private final String base;
+        private final String authorization;
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+        private HttpResultStore(String base, String authorization) {
+            this.base = base;
+            this.authorization = authorization;
+        }
+
+        @Override
+        public boolean hasPassed(String key) throws IOException {
+            int status = send(HttpRequest.newBuilder(resource(key)).GET());
+            if (status == 200) return true;
+            if (status == 404) return false;
+            throw new IOException("Unexpected status " + status + " for GET " + resource(key));
+        }
+
+        @Override
+        public void passed(String key) throws IOException {
+            int status = send(HttpRequest.newBuilder(resource(key)).PUT(HttpRequest.BodyPublishers.noBody()));
+            if (status / 100 != 2) throw new IOException("Unexpected status " + status + " for PUT " + resource(key));
+        }
+
+        private URI resource(String key) {
+            return URI.create(base + key);
+        }
+
+        private int send(HttpRequest.Builder request) throws IOException {
+            try {
+                return client.send(request.header("Authorization", authorization).timeout(TIMEOUT).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while accessing " + base, exception);
+            }
+        }
+    }
+}
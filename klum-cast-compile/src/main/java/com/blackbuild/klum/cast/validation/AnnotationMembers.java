@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/** Creates direct accessors for annotation members, bypassing reflection and the Groovy runtime. */
+final class AnnotationMembers {
+
+    private AnnotationMembers() {}
+
+    /**
+     * Returns a method handle reading the given member from an annotation instance. Members of non-public annotation
+     * types are made accessible first.
+     *
+     * @param member the annotation member
+     * @param resultType the type the handle returns
+     * @return a handle of type {@code (Annotation) -> resultType}
+     * @throws IllegalAccessException if the member cannot be made accessible
+     */
+    static MethodHandle accessor(Method member, Class<?> resultType) throws IllegalAccessException {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(member);
+        } catch (IllegalAccessException inaccessible) {
+            try {
+                member.setAccessible(true);
+            } catch (RuntimeException exception) {
+                inaccessible.addSuppressed(exception);
+                throw inaccessible;
+            }
+            handle = MethodHandles.lookup().unreflect(member);
+        }
+        return handle.asType(MethodType.methodType(resultType, Annotation.class));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.Diagnostic;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+
+import java.util.List;
+
+/** One use of a validated annotation collected for batch validation, together with its outcome once validated. */
+final class AnnotationUse {
+
+    private final AnnotationNode annotation;
+    private final AnnotatedNode target;
+    private final ClassNode owner;
+    private final DeferredChecks deferred;
+    private List<Diagnostic> diagnostics;
+    private RuntimeException failure;
+
+    AnnotationUse(AnnotationNode annotation, AnnotatedNode target, ClassNode owner) {
+        this.annotation = annotation;
+        this.target = target;
+        this.owner = owner;
+        this.deferred = new DeferredChecks(owner);
+    }
+
+    AnnotationNode getAnnotation() { return annotation; }
+
+    AnnotatedNode getTarget() { return target; }
+
+    /** @return the visited class declaring the target */
+    ClassNode getOwner() { return owner; }
+
+    /** @return the batch check invocations of this use, executed together with those of its class */
+    DeferredChecks getDeferred() { return deferred; }
+
+    /** @return the diagnostics of this use, {@code null} before it was validated or if validation failed */
+    List<Diagnostic> getDiagnostics() { return diagnostics; }
+
+    /** @return the technical failure raised while validating this use, if any */
+    RuntimeException getFailure() { return failure; }
+
+    void validated(List<Diagnostic> diagnostics) { this.diagnostics = diagnostics; }
+
+    void failed(RuntimeException failure) { this.failure = failure; }
+}
@@ -74,6 +74,14 @@ public class AstSupport {
         return target instanceof ClassNode ? (ClassNode) target : target.getDeclaringClass();
     }
 
+    /**
+     * Groovy does not link parameters to their method, so validation of a parameter needs its declaring class set
+     * explicitly to find the class loader and annotation index of the target.
+     */
+    static void setDeclaringMethod(Parameter parameter, MethodNode method) {
+        if (parameter.getDeclaringClass() == null) parameter.setDeclaringClass(method.getDeclaringClass());
+    }
+
     public static GroovyClassLoader getTargetClassLoader(AnnotatedNode target) {
         return getClassNode(target).getModule().getContext().getClassLoader();
     }
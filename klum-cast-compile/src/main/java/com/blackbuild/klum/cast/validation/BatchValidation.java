@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Validates all annotation uses of a compilation unit grouped by annotation type.
+ *
+ * <p>Uses are collected per source unit in traversal order. Each group resolves its {@link ValidationPlan} once and
+ * validates its uses back to back. The outcome is stored on the uses, so diagnostics are reported per source unit in
+ * the same order as the per-source-unit validation.</p>
+ */
+final class BatchValidation {
+
+    private final CompilationScope scope;
+    private final Map<SourceUnit, List<AnnotationUse>> usesBySource = new IdentityHashMap<>();
+    private final Map<String, List<AnnotationUse>> usesByType = new LinkedHashMap<>();
+
+    BatchValidation(CompilationScope scope) {
+        this.scope = scope;
+    }
+
+    /** Registers the uses of one source unit, in traversal order. */
+    void collect(SourceUnit source, List<AnnotationUse> uses) {
+        usesBySource.put(source, uses);
+        for (AnnotationUse use : uses) {
+            usesByType.computeIfAbsent(use.getAnnotation().getClassNode().getName(), ignored -> new ArrayList<>()).add(use);
+        }
+    }
+
+    /** @return how many distinct annotation types were collected */
+    int getGroupCount() { return usesByType.size(); }
+
+    /**
+     * Validates every group.
+     *
+     * @param executor runs the groups concurrently, or {@code null} to validate them on the calling thread
+     */
+    void validate(ExecutorService executor) {
+        if (executor == null) {
+            usesByType.values().forEach(this::validateGroup);
+            return;
+        }
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        List<Future<?>> tasks = new ArrayList<>(usesByType.size());
+        for (List<AnnotationUse> group : usesByType.values()) {
+            tasks.add(executor.submit(() -> {
+                Thread worker = Thread.currentThread();
+                ClassLoader workerLoader = worker.getContextClassLoader();
+                worker.setContextClassLoader(contextLoader);
+                try { validateGroup(group); }
+                finally { worker.setContextClassLoader(workerLoader); }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            try { task.get(); }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during batch validation", exception);
+            } catch (ExecutionException exception) {
+                throw new IllegalStateException("Technical failure during batch validation", exception.getCause());
+            }
+        }
+    }
+
+    /** @return the validated uses of a source unit in traversal order, or {@code null} if it was not collected */
+    List<AnnotationUse> removeUses(SourceUnit source) {
+        return usesBySource.remove(source);
+    }
+
+    private void validateGroup(List<AnnotationUse> group) {
+        ClassNode type = group.get(0).getAnnotation().getClassNode();
+        ValidationPlan plan = null;
+        for (AnnotationUse use : group) {
+            try {
+                if (!type.isResolved()) {
+                    use.validated(ValidationHandler.validateAnnotation(use.getAnnotation(), use.getTarget(), scope,
+                            use.getDeferred()));
+                    continue;
+                }
+                if (plan == null) {
+                    Class<?> annotationType = type.getTypeClass();
+                    plan = ValidationPlan.of(annotationType.asSubclass(Annotation.class));
+                }
+                use.validated(ValidationHandler.validateAnnotation(use.getAnnotation(), use.getTarget(), scope, plan,
+                        use.getDeferred()));
+            } catch (RuntimeException failure) {
+                // reported when the source unit reaches this use; later uses of the group are still validated
+                use.failed(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+
+/**
+ * Pre-scan deciding whether a source unit contains any use of a validated annotation.
+ *
+ * <p>The scan only reads the annotation lists of the nodes the transformation visits and stops at the first
+ * candidate. Annotation types are classified through the compilation-wide cache of the {@link CompilationScope}, which
+ * already is the exact set of validated type names seen so far, so no approximate membership structure is needed.
+ * Source units without a candidate are skipped entirely.</p>
+ */
+final class CandidateScan {
+
+    private CandidateScan() {}
+
+    /**
+     * @param module the AST of the source unit
+     * @param scope the scope classifying annotation types
+     * @return whether any class, member, or parameter of the module carries a validated annotation
+     */
+    static boolean hasCandidates(ModuleNode module, CompilationScope scope) {
+        for (ClassNode type : module.getClasses()) {
+            if (hasCandidate(type, scope)) return true;
+            for (FieldNode field : type.getFields()) {
+                if (hasCandidate(field, scope)) return true;
+            }
+            for (MethodNode constructor : type.getDeclaredConstructors()) {
+                if (hasCandidate(constructor, scope)) return true;
+            }
+            for (MethodNode method : type.getMethods()) {
+                if (hasCandidate(method, scope)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasCandidate(MethodNode method, CompilationScope scope) {
+        if (hasCandidate((AnnotatedNode) method, scope)) return true;
+        for (Parameter parameter : method.getParameters()) {
+            if (hasCandidate(parameter, scope)) return true;
+        }
+        return false;
+    }
+
+    private static boolean hasCandidate(AnnotatedNode node, CompilationScope scope) {
+        for (AnnotationNode annotation : node.getAnnotations()) {
+            if (!annotation.isBuiltIn() && scope.isValidatedAnnotationType(annotation.getClassNode())) return true;
+        }
+        return false;
+    }
+}
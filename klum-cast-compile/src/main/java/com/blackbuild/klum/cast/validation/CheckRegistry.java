@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.checks.impl.KlumCastCheck;
+import com.blackbuild.klum.cast.spi.Check;
+import com.blackbuild.klum.cast.spi.Deterministic;
+import com.blackbuild.klum.cast.spi.DiagnosticDefinition;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compilation-scoped registry of check implementations.
+ *
+ * <p>The {@link Check} contract allows the compiler to reuse an instance within one compilation, so every stateless
+ * check is instantiated once per registry and validating thread, see {@link ConfinedInstances}. Deprecated
+ * {@link KlumCastCheck} subclasses keep mutable invocation state and therefore receive a fresh instance for every
+ * invocation. The diagnostic definitions of every check type are validated once and cached, as are the message
+ * overrides checked against them. For {@link Deterministic} checks, the fingerprints of passing uses are remembered so
+ * that structurally identical uses are not checked again. The registry is thread-safe. It lives in a
+ * {@link CompilationScope} and is dropped together with it.</p>
+ */
+final class CheckRegistry {
+
+    private final Map<Class<? extends Check>, Registration> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the registration of a check type, instantiating and validating it on first use.
+     *
+     * @param checkType the check implementation
+     * @return the registration, never {@code null}
+     * @throws ReflectiveOperationException if the check cannot be instantiated
+     */
+    Registration get(Class<? extends Check> checkType) throws ReflectiveOperationException {
+        Registration registration = registrations.get(checkType);
+        return registration != null ? registration : register(checkType);
+    }
+
+    private synchronized Registration register(Class<? extends Check> checkType) throws ReflectiveOperationException {
+        Registration registration = registrations.get(checkType);
+        if (registration == null) {
+            registration = new Registration(checkType);
+            registrations.put(checkType, registration);
+        }
+        return registration;
+    }
+
+    /** One registered check type. */
+    static final class Registration {
+        private final Class<? extends Check> checkType;
+        private final ConfinedInstances<Check> instances;
+        private final Map<String, DiagnosticDefinition> definitions = new LinkedHashMap<>();
+        private final Set<List<Class<? extends Annotation>>> validatedTemplatePaths = ConcurrentHashMap.newKeySet();
+        private final boolean deterministic;
+        private final Set<UseFingerprint> passingUses;
+        private String duplicateCode;
+
+        private Registration(Class<? extends Check> checkType) throws ReflectiveOperationException {
+            this.checkType = checkType;
+            Check first = checkType.getDeclaredConstructor().newInstance();
+            this.instances = KlumCastCheck.class.isAssignableFrom(checkType) ? null : new ConfinedInstances<>(checkType, first);
+            this.deterministic = checkType.isAnnotationPresent(Deterministic.class);
+            this.passingUses = deterministic ? ConcurrentHashMap.newKeySet() : Set.of();
+            for (DiagnosticDefinition definition : first.getDiagnosticDefinitions()) {
+                if (definitions.put(definition.getCode(), definition) != null && duplicateCode == null) {
+                    duplicateCode = definition.getCode();
+                }
+            }
+        }
+
+        /**
+         * @return the instance of a stateless check for the current thread, or a fresh instance of a legacy check
+         * @throws ReflectiveOperationException if the check cannot be instantiated
+         */
+        Check instance() throws ReflectiveOperationException {
+            return instances != null ? instances.get() : checkType.getDeclaredConstructor().newInstance();
+        }
+
+        /** @return the diagnostic definitions keyed by code, in declaration order */
+        Map<String, DiagnosticDefinition> getDefinitions() { return Collections.unmodifiableMap(definitions); }
+
+        /** @return whether the check is marked {@link Deterministic} */
+        boolean isDeterministic() { return deterministic; }
+
+        /** @return whether a structurally identical use already passed this deterministic check */
+        boolean hasPassed(UseFingerprint fingerprint) { return passingUses.contains(fingerprint); }
+
+        /** Records that a use passed this deterministic check. */
+        void passed(UseFingerprint fingerprint) { passingUses.add(fingerprint); }
+
+        /** @return the first diagnostic code the check declared more than once, or {@code null} */
+        String getDuplicateCode() { return duplicateCode; }
+
+        /** @return whether the message overrides of these composition path types were already validated */
+        boolean hasValidatedTemplates(List<Class<? extends Annotation>> overridingTypes) {
+            return validatedTemplatePaths.contains(overridingTypes);
+        }
+
+        /** Records that the message overrides of these composition path types match the definitions. */
+        void templatesValidated(List<Class<? extends Annotation>> overridingTypes) {
+            validatedTemplatePaths.add(List.copyOf(overridingTypes));
+        }
+    }
+}
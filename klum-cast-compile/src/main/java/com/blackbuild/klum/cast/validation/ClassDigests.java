@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content digests of class files, remembered by a cheap stamp of the file.
+ *
+ * <p>{@link PlanVersion}s must be content hashes so that they are equal on every machine, but reading and hashing the
+ * class files of every validation library again in each compilation is the dominant cost of versioning a plan. A
+ * stamp combines the URL of a class file with the size and modification time of the file or jar containing it; while
+ * the stamp is unchanged, the digest is reused. Class files in other containers are always read.</p>
+ *
+ * <p>Digests are shared by all plans of a compilation and can be persisted in a file, so that fresh compiler JVMs,
+ * such as new Gradle daemons, start with the digests of the previous build. New digests are appended, and the file is
+ * compacted to the latest digest per class file when it is loaded. Like the other persisted state, the file is a
+ * cache: if it cannot be read or written, class files are hashed again. The cache is thread-safe.</p>
+ */
+final class ClassDigests {
+
+    private final Map<String, String> byStamp = new ConcurrentHashMap<>();
+    private volatile Path file;
+
+    /**
+     * Loads the digests persisted by previous builds, compacts the file, and appends new digests to it.
+     *
+     * @param file the digest file
+     */
+    synchronized void persistIn(Path file) {
+        if (this.file != null) return;
+        try {
+            if (Files.isRegularFile(file)) {
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                // stamps of replaced jars and class files never match again, only the latest line per class file counts
+                Map<String, String> latest = new LinkedHashMap<>();
+                for (String line : lines) {
+                    int separator = line.indexOf(' ');
+                    if (separator > 0) latest.put(classFileOf(line.substring(separator + 1)), line);
+                }
+                for (String line : latest.values()) {
+                    int separator = line.indexOf(' ');
+                    byStamp.putIfAbsent(line.substring(separator + 1), line.substring(0, separator));
+                }
+                if (latest.size() != lines.size()) Files.write(file, latest.values(), StandardCharsets.UTF_8);
+            } else {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                Files.createFile(file);
+            }
+            this.file = file;
+        } catch (IOException | RuntimeException exception) {
+            // without the file, digests are still shared within the compilation
+        }
+    }
+
+    /**
+     * @param classFile the location of a class file
+     * @return the hex encoded SHA-256 digest of its content
+     * @throws IOException if the class file cannot be read
+     */
+    String digest(URL classFile) throws IOException {
+        String stamp = stamp(classFile);
+        String digest = stamp != null ? byStamp.get(stamp) : null;
+        if (digest != null) return digest;
+        try (InputStream content = classFile.openStream()) {
+            digest = HexFormat.of().formatHex(PlanVersion.newDigest().digest(content.readAllBytes()));
+        }
+        if (stamp != null && byStamp.putIfAbsent(stamp, digest) == null) append(digest + ' ' + stamp);
+        return digest;
+    }
+
+    /** @return how many digests are known */
+    int size() {
+        return byStamp.size();
+    }
+
+    private synchronized void append(String line) {
+        if (file == null) return;
+        try {
+            Files.write(file, List.of(line), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException exception) {
+            file = null;
+        }
+    }
+
+    /** @return the class file URL of a stamp, without the size and modification time of its container */
+    private static String classFileOf(String stamp) {
+        int end = stamp.lastIndexOf(' ', stamp.lastIndexOf(' ') - 1);
+        return end > 0 ? stamp.substring(0, end) : stamp;
+    }
+
+    private static String stamp(URL classFile) {
+        try {
+            Path container;
+            if ("file".equals(classFile.getProtocol())) {
+                container = Path.of(classFile.toURI());
+            } else if ("jar".equals(classFile.getProtocol())) {
+                URLConnection connection = classFile.openConnection();
+                // reading the jar file URL does not open the jar
+                container = Path.of(((JarURLConnection) connection).getJarFileURL().toURI());
+            } else {
+                return null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(container, BasicFileAttributes.class);
+            return classFile + " " + attributes.size() + " " + attributes.lastModifiedTime().toMillis();
+        } catch (IOException | URISyntaxException | RuntimeException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import groovy.lang.GroovyClassLoader;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the classes of name-bound checks and filters.
+ *
+ * <p>Resolution through a {@link GroovyClassLoader} walks the parent chain and may look for scripts, so results are
+ * cached on two levels. Classes defined outside of Groovy class loaders cannot change for a given requesting loader
+ * and are shared across compilations in a cache that is weak in both the loader and the class: it never keeps a
+ * class loader of a finished build alive. Classes defined by a Groovy class loader can be replaced by recompiling
+ * their source, and failed lookups can succeed once the missing class is compiled, so both are only remembered by
+ * the resolver of one compilation. The resolver is thread-safe.</p>
+ */
+final class ClassResolver {
+
+    private static final Map<ClassLoader, Map<String, Reference<Class<?>>>> SHARED =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<ClassLoader, Map<String, Object>> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves and initializes a class.
+     *
+     * @param name the fully qualified class name
+     * @param loader the class loader of the validated target
+     * @return the resolved class
+     * @throws ClassNotFoundException if the class cannot be found, also when a previous lookup in this compilation failed
+     */
+    Class<?> resolve(String name, ClassLoader loader) throws ClassNotFoundException {
+        Map<String, Object> local = resolved.computeIfAbsent(loader, ignored -> new ConcurrentHashMap<>());
+        Object cached = local.get(name);
+        if (cached instanceof Class) return (Class<?>) cached;
+        if (cached instanceof ClassNotFoundException) throw (ClassNotFoundException) cached;
+
+        Class<?> type = sharedLookup(name, loader);
+        if (type == null) {
+            try {
+                type = Class.forName(name, true, loader);
+            } catch (ClassNotFoundException exception) {
+                local.put(name, exception);
+                throw exception;
+            }
+            if (!(type.getClassLoader() instanceof GroovyClassLoader)) sharedCache(loader).put(name, new WeakReference<>(type));
+        }
+        local.put(name, type);
+        return type;
+    }
+
+    /** @return whether the class is resolved from the cache shared across compilations */
+    static boolean isSharedAcrossCompilations(String name, ClassLoader loader) {
+        return sharedLookup(name, loader) != null;
+    }
+
+    private static Class<?> sharedLookup(String name, ClassLoader loader) {
+        Map<String, Reference<Class<?>>> byName = SHARED.get(loader);
+        Reference<Class<?>> reference = byName != null ? byName.get(name) : null;
+        return reference != null ? reference.get() : null;
+    }
+
+    private static Map<String, Reference<Class<?>>> sharedCache(ClassLoader loader) {
+        return SHARED.computeIfAbsent(loader, ignored -> new ConcurrentHashMap<>());
+    }
+}
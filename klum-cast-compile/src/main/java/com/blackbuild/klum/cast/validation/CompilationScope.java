@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.AnnotationIndex;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.blackbuild.klum.cast.validation.KlumCastTransformation.CHECK_BINDING;
+import static com.blackbuild.klum.cast.validation.KlumCastTransformation.KLUM_CAST_VALIDATED;
+import static com.blackbuild.klum.cast.validation.KlumCastTransformation.KLUM_CAST_VALIDATOR;
+
+/**
+ * State shared by the validation of all source units of one compilation unit.
+ *
+ * <p>Groovy creates one instance of a global transformation per compilation unit, so the owning
+ * {@link KlumCastTransformation} ties this scope to exactly one compilation. Annotation type names are unique within
+ * a compilation unit, which makes them safe cache keys here, but never across compilations.</p>
+ *
+ * <p>The scope is thread-safe, so source units may be validated concurrently. Concurrent classifications of the same
+ * type may both compute the result; they always agree.</p>
+ */
+final class CompilationScope {
+
+    private final Map<String, Boolean> validatedAnnotationTypes = new ConcurrentHashMap<>();
+    private final CheckRegistry checks = new CheckRegistry();
+    private final ClassResolver classes = new ClassResolver();
+    private final ValidationProfile profile = new ValidationProfile();
+    private final FilterRegistry filters = new FilterRegistry(classes, profile);
+    private final ClassDigests classDigests = new ClassDigests();
+    private final Map<ClassNode, AnnotationIndex> annotationIndexes = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<ClassNode, String> declarationDigests = Collections.synchronizedMap(new IdentityHashMap<>());
+    private volatile ClassLoader classLoader;
+    private volatile ValidationIndex index = ValidationIndex.EMPTY;
+    private final LongAdder detectionLookups = new LongAdder();
+    private final LongAdder detectionHits = new LongAdder();
+    private final LongAdder indexAnswers = new LongAdder();
+    private final LongAdder skippedSourceUnits = new LongAdder();
+    private final LongAdder reusedOutcomes = new LongAdder();
+    private final LongAdder unchangedSourceUnits = new LongAdder();
+    private final LongAdder sharedResults = new LongAdder();
+
+    /**
+     * Binds the scope to the class loader of the compilation unit. The published {@link ValidationIndex} of that
+     * loader is consulted for every annotation type that is not compiled in this unit.
+     *
+     * @param loader the class loader of the compilation unit
+     */
+    synchronized void useClassLoader(ClassLoader loader) {
+        if (classLoader != null || loader == null) return;
+        index = ValidationIndex.of(loader);
+        classLoader = loader;
+    }
+
+    /**
+     * Decides whether an annotation type is validated, that is, whether it carries a validation binding directly or
+     * through its meta-annotations. Each distinct type name is classified once per compilation. Types covered by a
+     * published index are classified without walking their meta-annotations.
+     *
+     * @param annotationType the annotation type to classify
+     * @return {@code true} if uses of the type must be validated
+     */
+    boolean isValidatedAnnotationType(ClassNode annotationType) {
+        detectionLookups.increment();
+        String name = annotationType.getName();
+        Boolean cached = validatedAnnotationTypes.get(name);
+        if (cached != null) {
+            detectionHits.increment();
+            return cached;
+        }
+        // only top-level results are cached: a negative result inside a meta-annotation cycle depends on the entry point
+        boolean validated = hasValidationBinding(annotationType, new HashSet<>());
+        validatedAnnotationTypes.put(name, validated);
+        return validated;
+    }
+
+    /** @return the check instances and diagnostic definitions of this compilation */
+    CheckRegistry getChecks() { return checks; }
+
+    /** @return the resolver of name-bound checks and filters of this compilation */
+    ClassResolver getClasses() { return classes; }
+
+    /** @return the applicability filters and filter contexts of this compilation */
+    FilterRegistry getFilters() { return filters; }
+
+    /** @return the profile of this compilation, disabled unless {@code klumcast.profile} is set */
+    ValidationProfile getProfile() { return profile; }
+
+    /** @return the class file digests versioning the validation plans of this compilation */
+    ClassDigests getClassDigests() { return classDigests; }
+
+    /**
+     * Returns the annotation index of a class, building it on first request. All uses of a class are validated in one
+     * pass that does not change annotations, so each class is scanned at most once.
+     *
+     * @param owner the class declaring the validated targets
+     * @return the shared index of the class
+     */
+    AnnotationIndex getAnnotationIndex(ClassNode owner) {
+        return annotationIndexes.computeIfAbsent(owner, AnnotationIndex::of);
+    }
+
+    /**
+     * Returns the {@link SourceFingerprint#declarationOf declaration digest} of a class compiled from source, computing
+     * it on first request. Every source unit referencing the class shares the digest.
+     *
+     * @param type a class compiled from source
+     * @return the digest, or {@code null} if a validation plan used by the class cannot be versioned
+     */
+    String getDeclarationDigest(ClassNode type) {
+        if (declarationDigests.containsKey(type)) return declarationDigests.get(type);
+        String digest = SourceFingerprint.declarationOf(type, this);
+        declarationDigests.put(type, digest);
+        return digest;
+    }
+
+    /** @return how often an annotation type was classified */
+    long getDetectionLookups() { return detectionLookups.sum(); }
+
+    /** @return how many classifications were answered from the cache */
+    long getDetectionHits() { return detectionHits.sum(); }
+
+    /** @return the share of classifications answered from the cache, {@code 0} before the first lookup */
+    double getDetectionHitRate() {
+        long lookups = detectionLookups.sum();
+        return lookups == 0 ? 0 : (double) detectionHits.sum() / lookups;
+    }
+
+    /** @return how many classifications, including nested meta-annotations, were answered by a published index */
+    long getIndexAnswers() { return indexAnswers.sum(); }
+
+    /** Records a source unit that contained no validated annotation and was not visited. */
+    void sourceUnitSkipped() { skippedSourceUnits.increment(); }
+
+    /** @return how many source units the pre-scan skipped */
+    long getSkippedSourceUnits() { return skippedSourceUnits.sum(); }
+
+    /** Records a source unit that passed in the previous build, did not change, and was not visited. */
+    void sourceUnitUnchanged() { unchangedSourceUnits.increment(); }
+
+    /** @return how many source units incremental validation skipped */
+    long getUnchangedSourceUnits() { return unchangedSourceUnits.sum(); }
+
+    /** Records a source unit whose passing result was found in the shared result store. */
+    void sharedResultUsed() { sharedResults.increment(); }
+
+    /** @return how many source units were skipped because the shared result store knew them to pass */
+    long getSharedResults() { return sharedResults.sum(); }
+
+    /** Records a deterministic check invocation answered by an earlier, structurally identical use. */
+    void outcomeReused() { reusedOutcomes.increment(); }
+
+    /** @return how many deterministic check invocations were answered without running the check */
+    long getReusedOutcomes() { return reusedOutcomes.sum(); }
+
+    /** @return the counters of this compilation by name, in the order the {@link ValidationProfile} reports them */
+    Map<String, Number> getCounters() {
+        Map<String, Number> counters = new LinkedHashMap<>();
+        counters.put("detectionLookups", getDetectionLookups());
+        counters.put("detectionHits", getDetectionHits());
+        counters.put("detectionHitRate", getDetectionHitRate());
+        counters.put("indexAnswers", getIndexAnswers());
+        counters.put("skippedSourceUnits", getSkippedSourceUnits());
+        counters.put("unchangedSourceUnits", getUnchangedSourceUnits());
+        counters.put("sharedResults", getSharedResults());
+        counters.put("reusedOutcomes", getReusedOutcomes());
+        return counters;
+    }
+
+    private boolean hasValidationBinding(ClassNode annotationType, Set<String> visited) {
+        if (!visited.add(annotationType.getName())) return false;
+        Boolean indexed = fromIndex(annotationType);
+        if (indexed != null) return indexed;
+        for (AnnotationNode declaration : annotationType.getAnnotations()) {
+            ClassNode type = declaration.getClassNode();
+            if (type.equals(KLUM_CAST_VALIDATED) || type.equals(KLUM_CAST_VALIDATOR) || type.equals(CHECK_BINDING)) {
+                return true;
+            }
+            if (hasValidationBinding(type, visited)) return true;
+        }
+        return false;
+    }
+
+    private Boolean fromIndex(ClassNode annotationType) {
+        // types compiled in this unit are never covered by an index, even if an older build of them is on the classpath
+        if (index.isEmpty() || annotationType.isPrimaryClassNode()) return null;
+        Boolean indexed = index.isValidated(annotationType, classLoader);
+        if (indexed != null) indexAnswers.increment();
+        return indexed;
+    }
+}
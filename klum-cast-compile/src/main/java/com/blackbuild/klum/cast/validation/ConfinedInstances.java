@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.ThreadSafe;
+
+/**
+ * The instances of one check or filter implementation within a compilation.
+ *
+ * <p>Implementations marked {@link ThreadSafe} share the first instance. All others receive one instance per validating
+ * thread, so serial validation still uses only the first one and parallel validation never invokes an instance
+ * concurrently. The per-thread instances are held in a {@link ThreadLocal}, so they do not outlive their worker
+ * thread.</p>
+ *
+ * @param <T> the check or filter type
+ */
+final class ConfinedInstances<T> {
+
+    private final Class<? extends T> type;
+    private final T shared;
+    private final ThreadLocal<T> perThread;
+
+    ConfinedInstances(Class<? extends T> type, T first) {
+        this.type = type;
+        if (type.isAnnotationPresent(ThreadSafe.class)) {
+            this.shared = first;
+            this.perThread = null;
+        } else {
+            this.shared = null;
+            this.perThread = new ThreadLocal<>();
+            perThread.set(first);
+        }
+    }
+
+    /**
+     * @return the shared instance, or the instance of the current thread
+     * @throws ReflectiveOperationException if a new instance for the current thread cannot be created
+     */
+    T get() throws ReflectiveOperationException {
+        if (shared != null) return shared;
+        T instance = perThread.get();
+        if (instance == null) {
+            instance = type.getDeclaredConstructor().newInstance();
+            perThread.set(instance);
+        }
+        return instance;
+    }
+}
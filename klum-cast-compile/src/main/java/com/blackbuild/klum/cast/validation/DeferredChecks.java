@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.BatchCheck;
+import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Diagnostic;
+import org.codehaus.groovy.ast.ClassNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invocations of {@link BatchCheck}s collected while a class is validated.
+ *
+ * <p>Contexts are grouped by binding, that is by check registration, binding declaration, and validated annotation
+ * type, in order of first use and kept in source order within a group. Once the class is complete, {@link #complete}
+ * executes every batch check once per binding. Instances are confined to the thread validating the class.</p>
+ */
+final class DeferredChecks {
+
+    private final ClassNode owner;
+    private Map<List<Object>, Batch> invocations;
+
+    DeferredChecks(ClassNode owner) {
+        this.owner = owner;
+    }
+
+    /** @return the class whose uses are validated */
+    ClassNode getOwner() { return owner; }
+
+    void defer(CheckRegistry.Registration registration, CheckContext context) {
+        if (invocations == null) invocations = new LinkedHashMap<>();
+        List<Object> binding = List.of(registration, context.getBinding().getDeclaration(),
+                context.getValidatedAnnotation().getClassNode().getName());
+        invocations.computeIfAbsent(binding, ignored -> new Batch(registration)).contexts.add(context);
+    }
+
+    /** Appends the invocations collected separately for a later use of the same class. */
+    void addAll(DeferredChecks other) {
+        if (other.invocations == null) return;
+        other.invocations.values().forEach(batch -> batch.contexts.forEach(context -> defer(batch.registration, context)));
+    }
+
+    boolean isEmpty() {
+        return invocations == null;
+    }
+
+    /**
+     * Executes every collected batch check and forgets the invocations.
+     *
+     * @param profile records each batch check execution
+     * @return the diagnostics of all batch checks, grouped by binding in order of first use
+     */
+    List<Diagnostic> complete(ValidationProfile profile) {
+        if (invocations == null) return List.of();
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        Map<List<Object>, Batch> pending = invocations;
+        invocations = null;
+        for (Batch batch : pending.values()) {
+            diagnostics.addAll(ValidationHandler.executeBatch(batch.registration, batch.contexts, profile));
+        }
+        return diagnostics;
+    }
+
+    private static final class Batch {
+        private final CheckRegistry.Registration registration;
+        private final List<CheckContext> contexts = new ArrayList<>();
+
+        private Batch(CheckRegistry.Registration registration) {
+            this.registration = registration;
+        }
+    }
+}
@@ -23,60 +23,95 @@
  */
 package com.blackbuild.klum.cast.validation;
 
+import com.blackbuild.klum.cast.DiagnosticMessage;
+import com.blackbuild.klum.cast.DiagnosticMessages;
+import com.blackbuild.klum.cast.spi.internal.DiagnosticTemplate;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-/** Parses the deliberately small named-argument template syntax used by validation annotations. */
+/**
+ * The {@code @DiagnosticMessage} overrides of validation annotations.
+ *
+ * <p>The overrides of an annotation type are compiled into {@link DiagnosticTemplate}s once per type and cached through
+ * a {@link ClassValue}.</p>
+ */
 final class DiagnosticTemplates {
 
+    private static final ClassValue<Overrides> OVERRIDES = new ClassValue<>() {
+        @Override
+        protected Overrides computeValue(Class<?> type) {
+            return new Overrides(type.getAnnotation(DiagnosticMessages.class));
+        }
+    };
+
     private DiagnosticTemplates() {}
 
-    static void validate(String template, Set<String> allowedArguments) {
-        render(template, allowedArguments, null);
+    /** @return the compiled {@code @DiagnosticMessage} overrides declared directly on the annotation type */
+    static Overrides overridesOf(Class<? extends Annotation> annotationType) {
+        return OVERRIDES.get(annotationType);
     }
 
-    static String render(String template, Map<String, Object> arguments) {
-        return render(template, arguments.keySet(), arguments);
-    }
+    /** The compiled message overrides of one annotation type, keyed by diagnostic code. */
+    static final class Overrides {
+        private final List<Entry> entries = new ArrayList<>();
+        private final Map<String, Entry> byCode = new HashMap<>();
 
-    private static String render(String template, Set<String> allowedArguments, Map<String, Object> arguments) {
-        StringBuilder rendered = new StringBuilder();
-        for (int index = 0; index < template.length(); index++) {
-            char character = template.charAt(index);
-            if (character == '{') {
-                if (index + 1 < template.length() && template.charAt(index + 1) == '{') {
-                    rendered.append('{');
-                    index++;
-                    continue;
-                }
-                int end = template.indexOf('}', index + 1);
-                if (end < 0) throw new IllegalArgumentException("Unclosed diagnostic template argument in '" + template + "'");
-                String name = template.substring(index + 1, end);
-                if (!isName(name) || !allowedArguments.contains(name)) {
-                    throw new IllegalArgumentException("Unknown diagnostic template argument '" + name + "' in '" + template + "'");
-                }
-                if (arguments != null) rendered.append(String.valueOf(arguments.get(name)));
-                index = end;
-            } else if (character == '}') {
-                if (index + 1 < template.length() && template.charAt(index + 1) == '}') {
-                    rendered.append('}');
-                    index++;
-                } else {
-                    throw new IllegalArgumentException("Unescaped '}' in diagnostic template '" + template + "'");
-                }
-            } else {
-                rendered.append(character);
+        private Overrides(DiagnosticMessages messages) {
+            if (messages == null) return;
+            for (DiagnosticMessage message : messages.value()) {
+                Entry entry = new Entry(message, byCode.containsKey(message.code()));
+                entries.add(entry);
+                byCode.putIfAbsent(message.code(), entry);
             }
         }
-        return rendered.toString();
+
+        /** @return whether the annotation type declares no overrides */
+        boolean isEmpty() { return entries.isEmpty(); }
+
+        /** @return all declared overrides in declaration order, including repeated codes */
+        List<Entry> getEntries() { return entries; }
+
+        /** @return the first override declared for the code, or {@code null} if there is none */
+        Entry get(String code) { return byCode.get(code); }
     }
 
-    private static boolean isName(String name) {
-        if (name.isEmpty()) return false;
-        for (int index = 0; index < name.length(); index++) {
-            char character = name.charAt(index);
-            if (!Character.isLetterOrDigit(character) && character != '_') return false;
+    /** One declared {@code @DiagnosticMessage}, compiled or carrying its parse failure. */
+    static final class Entry {
+        private final String code;
+        private final boolean duplicate;
+        private final DiagnosticTemplate template;
+        private final IllegalArgumentException failure;
+
+        private Entry(DiagnosticMessage message, boolean duplicate) {
+            this.code = message.code();
+            this.duplicate = duplicate;
+            DiagnosticTemplate compiled = null;
+            IllegalArgumentException parseFailure = null;
+            try {
+                compiled = DiagnosticTemplate.compile(message.template());
+            } catch (IllegalArgumentException exception) {
+                parseFailure = exception;
+            }
+            this.template = compiled;
+            this.failure = parseFailure;
+        }
+
+        String getCode() { return code; }
+
+        /** @return whether an earlier override of the same annotation type already declared this code */
+        boolean isDuplicate() { return duplicate; }
+
+        /**
+         * @return the compiled template
+         * @throws IllegalArgumentException if the template is malformed
+         */
+        DiagnosticTemplate getTemplate() {
+            if (failure != null) throw failure;
+            return template;
         }
-        return true;
     }
 }
@@ -26,61 +26,160 @@ package com.blackbuild.klum.cast.validation;
 import com.blackbuild.klum.cast.Filter;
 import com.blackbuild.klum.cast.KlumCastValidator;
 import com.blackbuild.klum.cast.spi.ApplicabilityFilter;
-import com.blackbuild.klum.cast.spi.BindingMetadata;
-import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckContext;
 import org.codehaus.groovy.ast.AnnotatedNode;
-import org.codehaus.groovy.ast.AnnotationNode;
 
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
-/** Resolves built-in, name-bound and typed applicability filters. */
+/**
+ * Resolves built-in, name-bound and typed applicability filters. Filter instances and the filter context of
+ * {@code @Filter} members are taken from the {@link FilterRegistry} of the current compilation.
+ *
+ * <p>The {@code @Filter} members of an annotation type are discovered once and read through method handles. Their
+ * values are bound once per validation plan step, so evaluating the filters of an annotation use is a loop over the
+ * few members that actually select something.</p>
+ */
 public final class FilterHandler {
     private FilterHandler() {}
 
-    static boolean isValidFor(Annotation annotation, AnnotatedNode target, String memberName, List<Annotation> path) {
-        for (Method method : annotation.annotationType().getDeclaredMethods()) {
-            if (!method.isAnnotationPresent(Filter.class)) continue;
-            try {
-                Object value = method.invoke(annotation);
-                if (value instanceof ElementType[] && !AstSupport.matchesOneOf((ElementType[]) value, target)) return false;
-                if (value instanceof String && !((String) value).isBlank() && !newFilter((String) value, target).appliesTo(context(annotation, target, memberName, path))) return false;
-                if (value instanceof Class && !value.equals(KlumCastValidator.None.class) && !newFilter((Class<?>) value).appliesTo(context(annotation, target, memberName, path))) return false;
-            } catch (ReflectiveOperationException exception) {
-                throw new IllegalStateException("Could not resolve applicability filter " + method.getName(), exception);
+    private static final ClassValue<FilterMember[]> FILTER_MEMBERS = new ClassValue<>() {
+        @Override
+        protected FilterMember[] computeValue(Class<?> type) {
+            return Arrays.stream(type.getDeclaredMethods())
+                    .filter(method -> method.isAnnotationPresent(Filter.class))
+                    .map(FilterMember::of)
+                    .filter(Objects::nonNull)
+                    .toArray(FilterMember[]::new);
+        }
+    };
+
+    /**
+     * Reads the {@code @Filter} members of one annotation. The values are constant per annotation, so validation plans
+     * bind them once. Members that select nothing, that is empty targets, a blank name or {@code None}, are dropped.
+     *
+     * @param annotation the annotation declaring {@code @Filter} members
+     * @return the effective filters, empty if the annotation never restricts applicability
+     */
+    static BoundFilter[] bind(Annotation annotation) {
+        FilterMember[] members = FILTER_MEMBERS.get(annotation.annotationType());
+        if (members.length == 0) return NO_FILTERS;
+        List<BoundFilter> bound = new ArrayList<>(members.length);
+        for (FilterMember member : members) {
+            Object value = member.read(annotation);
+            if (!member.selectsNothing(value)) bound.add(new BoundFilter(member.kind, value));
+        }
+        return bound.toArray(NO_FILTERS);
+    }
+
+    static boolean isValidFor(FilterRegistry filters, BoundFilter[] bound, Annotation annotation, AnnotatedNode target, String memberName, List<Annotation> path) {
+        for (BoundFilter filter : bound) {
+            switch (filter.kind) {
+                case TARGETS:
+                    if (!AstSupport.matchesOneOf((ElementType[]) filter.value, target)) return false;
+                    break;
+                case NAME:
+                    if (!appliesTo(filters.getProfile(), filters.get((String) filter.value, AstSupport.getTargetClassLoader(target)), context(filters, annotation, target, memberName, path))) return false;
+                    break;
+                case TYPE:
+                    if (!appliesTo(filters.getProfile(), filters.get((Class<?>) filter.value), context(filters, annotation, target, memberName, path))) return false;
+                    break;
             }
         }
         return true;
     }
 
-    static boolean areApplicable(Class<?>[] types, CheckContext context) {
-        for (Class<?> type : types) if (!newFilter(type).appliesTo(context)) return false;
+    static boolean areApplicable(FilterRegistry filters, Class<?>[] types, CheckContext context) {
+        for (Class<?> type : types) if (!appliesTo(filters.getProfile(), filters.get(type), context)) return false;
         return true;
     }
 
-    private static ApplicabilityFilter newFilter(String name, AnnotatedNode target) {
-        try { return newFilter(Class.forName(name, true, AstSupport.getTargetClassLoader(target))); }
-        catch (ClassNotFoundException exception) { throw new IllegalStateException("Could not load filter " + name, exception); }
+    private static boolean appliesTo(ValidationProfile profile, ApplicabilityFilter filter, CheckContext context) {
+        ValidationEvents.FilterEvent event = new ValidationEvents.FilterEvent();
+        event.begin();
+        long start = profile.start();
+        boolean applies = filter.appliesTo(context);
+        profile.filterEvaluated(filter.getClass().getName(), start, applies);
+        if (ValidationListeners.ACTIVE) ValidationListeners.filterDecided(filter, context, applies);
+        if (event.isEnabled()) {
+            event.implementation = filter.getClass().getName();
+            event.declaration = ValidationEvents.nameOf(context.getControlAnnotation());
+            event.applies = applies;
+            event.commit();
+        }
+        return applies;
     }
 
-    private static ApplicabilityFilter newFilter(Class<?> candidate) {
-        if (!ApplicabilityFilter.class.isAssignableFrom(candidate)) {
-            throw new IllegalStateException("Configured filter " + candidate.getName() + " does not implement " + ApplicabilityFilter.class.getName());
-        }
-        try { return candidate.asSubclass(ApplicabilityFilter.class).getDeclaredConstructor().newInstance(); }
-        catch (ReflectiveOperationException exception) { throw new IllegalStateException("Could not instantiate filter " + candidate.getName(), exception); }
+    private static CheckContext context(FilterRegistry filters, Annotation declaration, AnnotatedNode target, String memberName, List<Annotation> path) {
+        return new CheckContext(filters.newPlaceholder(declaration.annotationType()), target, declaration, memberName,
+                filters.getMemberFilterBinding(declaration), path);
     }
 
-    private static CheckContext context(Annotation declaration, AnnotatedNode target, String memberName, List<Annotation> path) {
-        AnnotationNode placeholder = new AnnotationNode(org.codehaus.groovy.ast.ClassHelper.make(declaration.annotationType()));
-        return new CheckContext(placeholder, target, declaration, memberName,
-                new BindingMetadata(declaration, NoopCheck.class, NoopCheck.class.getName()), path);
+    private enum FilterKind { TARGETS, NAME, TYPE }
+
+    private static final BoundFilter[] NO_FILTERS = new BoundFilter[0];
+
+    /** The value of one {@code @Filter} member of a specific annotation. */
+    static final class BoundFilter {
+        private final FilterKind kind;
+        private final Object value;
+
+        private BoundFilter(FilterKind kind, Object value) {
+            this.kind = kind;
+            this.value = value;
+        }
+
+        /** @return the class name of a name-bound filter, or {@code null} for other filters */
+        String getFilterName() { return kind == FilterKind.NAME ? (String) value : null; }
     }
 
-    private static final class NoopCheck implements Check {
-        @Override public List<com.blackbuild.klum.cast.spi.Diagnostic> check(CheckContext context) { return List.of(); }
+    /** A {@code @Filter} member with a direct accessor, classified by its value type. */
+    private static final class FilterMember {
+        private final String name;
+        private final FilterKind kind;
+        private final MethodHandle accessor;
+
+        private FilterMember(String name, FilterKind kind, MethodHandle accessor) {
+            this.name = name;
+            this.kind = kind;
+            this.accessor = accessor;
+        }
+
+        private static FilterMember of(Method method) {
+            FilterKind kind;
+            if (method.getReturnType() == ElementType[].class) kind = FilterKind.TARGETS;
+            else if (method.getReturnType() == String.class) kind = FilterKind.NAME;
+            else if (method.getReturnType() == Class.class) kind = FilterKind.TYPE;
+            else return null; // other member types never select a filter
+            try {
+                return new FilterMember(method.getName(), kind, AnnotationMembers.accessor(method, Object.class));
+            } catch (IllegalAccessException exception) {
+                throw new IllegalStateException("Could not resolve applicability filter " + method.getName(), exception);
+            }
+        }
+
+        private boolean selectsNothing(Object value) {
+            switch (kind) {
+                case TARGETS: return ((ElementType[]) value).length == 0;
+                case NAME: return ((String) value).isBlank();
+                default: return value.equals(KlumCastValidator.None.class);
+            }
+        }
+
+        private Object read(Annotation annotation) {
+            try {
+                return (Object) accessor.invokeExact(annotation);
+            } catch (Error error) {
+                throw error;
+            } catch (Throwable exception) {
+                throw new IllegalStateException("Could not resolve applicability filter " + name, exception);
+            }
+        }
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.ApplicabilityFilter;
+import com.blackbuild.klum.cast.spi.BindingMetadata;
+import com.blackbuild.klum.cast.spi.Check;
+import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Diagnostic;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compilation-scoped registry of applicability filters and the data needed to evaluate {@code @Filter} members.
+ *
+ * <p>Filters are stateless and share the check lifecycle, so each filter type is resolved once per compilation and
+ * instantiated once per validating thread, see {@link ConfinedInstances}. Name-bound filters are resolved through the
+ * {@link ClassResolver} and cached per class loader and name. The type of the placeholder validated annotation and the
+ * binding metadata handed to {@code @Filter} member filters only depend on the declaring annotation, so they are
+ * cached as well. The placeholder itself is a mutable node and created per evaluation. The registry is
+ * thread-safe.</p>
+ */
+final class FilterRegistry {
+
+    private final ClassResolver classes;
+    private final ValidationProfile profile;
+    private final Map<Class<?>, ConfinedInstances<ApplicabilityFilter>> filters = new ConcurrentHashMap<>();
+    private final Map<ClassLoader, Map<String, Class<?>>> namedFilters = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Annotation>, ClassNode> placeholderTypes = new ConcurrentHashMap<>();
+    private final Map<Annotation, BindingMetadata> memberFilterBindings = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    FilterRegistry(ClassResolver classes, ValidationProfile profile) {
+        this.classes = classes;
+        this.profile = profile;
+    }
+
+    /** @return the profile recording filter evaluations */
+    ValidationProfile getProfile() { return profile; }
+
+    /**
+     * @param type the filter implementation
+     * @return the filter instance of the current thread
+     * @throws IllegalStateException if the type is no filter or cannot be instantiated
+     */
+    ApplicabilityFilter get(Class<?> type) {
+        try { return filters.computeIfAbsent(type, FilterRegistry::newInstances).get(); }
+        catch (ReflectiveOperationException exception) { throw new IllegalStateException("Could not instantiate filter " + type.getName(), exception); }
+    }
+
+    /**
+     * @param name the fully qualified filter implementation name
+     * @param loader the class loader of the validated target
+     * @return the filter instance of the current thread
+     * @throws IllegalStateException if the filter cannot be loaded, is no filter or cannot be instantiated
+     */
+    ApplicabilityFilter get(String name, ClassLoader loader) {
+        Map<String, Class<?>> byName = namedFilters.computeIfAbsent(loader, ignored -> new ConcurrentHashMap<>());
+        Class<?> type = byName.get(name);
+        if (type == null) {
+            try { type = classes.resolve(name, loader); }
+            catch (ClassNotFoundException exception) { throw new IllegalStateException("Could not load filter " + name, exception); }
+            byName.putIfAbsent(name, type);
+        }
+        return get(type);
+    }
+
+    /** @return a new placeholder use of the annotation declaring {@code @Filter} members, owned by one filter context */
+    AnnotationNode newPlaceholder(Class<? extends Annotation> declaringType) {
+        return new AnnotationNode(placeholderTypes.computeIfAbsent(declaringType, ClassHelper::make));
+    }
+
+    /** @return the binding metadata identifying a {@code @Filter} member evaluation on the given declaration */
+    BindingMetadata getMemberFilterBinding(Annotation declaration) {
+        return memberFilterBindings.computeIfAbsent(declaration,
+                ignored -> new BindingMetadata(declaration, NoopCheck.class, NoopCheck.class.getName()));
+    }
+
+    private static ConfinedInstances<ApplicabilityFilter> newInstances(Class<?> candidate) {
+        if (!ApplicabilityFilter.class.isAssignableFrom(candidate)) {
+            throw new IllegalStateException("Configured filter " + candidate.getName() + " does not implement " + ApplicabilityFilter.class.getName());
+        }
+        Class<? extends ApplicabilityFilter> type = candidate.asSubclass(ApplicabilityFilter.class);
+        try { return new ConfinedInstances<>(type, type.getDeclaredConstructor().newInstance()); }
+        catch (ReflectiveOperationException exception) { throw new IllegalStateException("Could not instantiate filter " + candidate.getName(), exception); }
+    }
+
+    private static final class NoopCheck implements Check {
+        @Override public List<Diagnostic> check(CheckContext context) { return List.of(); }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validation outcomes persisted between builds, so that unchanged source units are not validated again.
+ *
+ * <p>The state file records the {@link SourceFingerprint} of every source unit whose last validation reported no
+ * diagnostic. A unit whose current fingerprint matches its record is skipped. Records are appended as units are
+ * validated; a unit that reports diagnostics appends a removal instead. The file is compacted when it is opened and
+ * starts over whenever the KlumCast compiler itself changes. The state is a cache: if it cannot be read or written,
+ * every unit is validated.</p>
+ *
+ * <p>An instance belongs to one compilation unit and is only used from the thread driving the transformation.</p>
+ */
+final class IncrementalState {
+
+    private static final String HEADER = "klum-cast-incremental 1 " + CompilerVersion.get();
+    private static final String REMOVED = "-";
+
+    private final Path file;
+    private final Map<String, String> cleanUnits;
+    private boolean writable;
+
+    private IncrementalState(Path file, Map<String, String> cleanUnits, boolean writable) {
+        this.file = file;
+        this.cleanUnits = cleanUnits;
+        this.writable = writable;
+    }
+
+    /**
+     * Reads the state of the previous build and compacts the file.
+     *
+     * @param file the state file
+     * @return the state, empty if the file is missing, unreadable, or written by another compiler version
+     */
+    static IncrementalState open(Path file) {
+        Map<String, String> cleanUnits = new HashMap<>();
+        // without a version, changes of the compiler would go unnoticed
+        if (CompilerVersion.get() == null) return new IncrementalState(file, cleanUnits, false);
+        try {
+            List<String> lines = Files.isRegularFile(file) ? Files.readAllLines(file, StandardCharsets.UTF_8) : List.of();
+            if (!lines.isEmpty() && lines.get(0).equals(HEADER)) {
+                for (String line : lines.subList(1, lines.size())) {
+                    int separator = line.indexOf(' ');
+                    if (separator <= 0) continue;
+                    String name = line.substring(separator + 1);
+                    String fingerprint = line.substring(0, separator);
+                    if (fingerprint.equals(REMOVED)) cleanUnits.remove(name);
+                    else cleanUnits.put(name, fingerprint);
+                }
+            }
+            if (lines.size() != cleanUnits.size() + 1) {
+                List<String> compacted = new ArrayList<>(cleanUnits.size() + 1);
+                compacted.add(HEADER);
+                cleanUnits.forEach((name, fingerprint) -> compacted.add(fingerprint + ' ' + name));
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                Files.write(file, compacted, StandardCharsets.UTF_8);
+            }
+            return new IncrementalState(file, cleanUnits, true);
+        } catch (IOException | RuntimeException exception) {
+            return new IncrementalState(file, new HashMap<>(), false);
+        }
+    }
+
+    /**
+     * @param source the source unit about to be validated
+     * @param fingerprint the current fingerprint of the unit, or {@code null}
+     * @return whether the unit passed in the previous build and did not change since
+     */
+    boolean isUnchanged(SourceUnit source, String fingerprint) {
+        return fingerprint != null && fingerprint.equals(cleanUnits.get(source.getName()));
+    }
+
+    /**
+     * Records the outcome of a validated source unit.
+     *
+     * @param source the validated source unit
+     * @param fingerprint the fingerprint of the unit, or {@code null} if it has none
+     * @param clean whether the validation reported no diagnostic
+     */
+    void record(SourceUnit source, String fingerprint, boolean clean) {
+        String name = source.getName();
+        if (clean && fingerprint != null) {
+            if (!fingerprint.equals(cleanUnits.put(name, fingerprint))) append(fingerprint + ' ' + name);
+        } else if (cleanUnits.remove(name) != null) {
+            append(REMOVED + ' ' + name);
+        }
+    }
+
+    private void append(String line) {
+        if (!writable) return;
+        try {
+            Files.write(file, List.of(line), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException exception) {
+            writable = false;
+        }
+    }
+}
@@ -27,36 +27,308 @@ import com.blackbuild.klum.cast.KlumCastValidated;
 import com.blackbuild.klum.cast.KlumCastValidator;
 import com.blackbuild.klum.cast.spi.CheckBinding;
 import com.blackbuild.klum.cast.spi.Diagnostic;
+import groovy.transform.CompilationUnitAware;
 import org.codehaus.groovy.ast.*;
+import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilePhase;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.messages.WarningMessage;
 import org.codehaus.groovy.transform.AbstractASTTransformation;
 import org.codehaus.groovy.transform.GroovyASTTransformation;
 
 import static org.codehaus.groovy.ast.ClassHelper.make;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.HashSet;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 /**
  * Transformation the performs the actual validation.
+ *
+ * <p>Source units are validated one at a time by default. With {@code klumcast.parallel} enabled, the first source unit
+ * of a compilation unit triggers the concurrent validation of all its source units. Diagnostics are buffered per source
+ * unit and reported when Groovy hands that unit to the transformation, so the output matches the serial mode.</p>
+ *
+ * <p>With {@code klumcast.batch} enabled, the first source unit triggers a compilation-unit-wide pass instead: all uses
+ * are collected first and then validated grouped by annotation type, see {@link BatchValidation}. Diagnostics are
+ * again reported per source unit in traversal order.</p>
+ *
+ * <p>In every mode, a {@link CandidateScan} first checks whether a source unit uses any validated annotation at all.
+ * Units without one are skipped without visiting their classes.</p>
+ *
+ * <p>With {@code klumcast.incremental} enabled, source units that passed in the previous build and whose
+ * {@link SourceFingerprint} did not change are skipped as well, see {@link IncrementalState}. With a shared result
+ * store configured through {@code klumcast.store}, units whose fingerprint passed in any build using that store are
+ * skipped, see {@link SharedResults}. Skipped units are excluded from the parallel and batch passes.</p>
+ *
+ * <p>With {@code klumcast.profile} enabled, time and counts are aggregated in a {@link ValidationProfile} that is
+ * written once the last source unit of the compilation unit was transformed. Independent of that option, every source
+ * unit, use, check and filter emits a Java Flight Recorder event, see {@link ValidationEvents}.</p>
  */
 
 @GroovyASTTransformation(phase = CompilePhase.SEMANTIC_ANALYSIS)
-public class KlumCastTransformation extends AbstractASTTransformation implements GroovyClassVisitor {
+public class KlumCastTransformation extends AbstractASTTransformation implements GroovyClassVisitor, CompilationUnitAware {
 
     static final ClassNode KLUM_CAST_VALIDATED = make(KlumCastValidated.class);
     static final ClassNode KLUM_CAST_VALIDATOR = make(KlumCastValidator.class);
     static final ClassNode CHECK_BINDING = make(CheckBinding.class);
 
+    private final CompilationScope scope;
+    private final List<PendingError> pendingErrors;
+    private final List<AnnotationUse> collectedUses;
+    private CompilationUnit compilationUnit;
+    private Map<SourceUnit, UnitResult> parallelResults;
+    private BatchValidation batch;
+    private boolean optionsApplied;
+    private IncrementalState incremental;
+    private Path profileDirectory;
+    private final Set<SourceUnit> transformedSources = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int knownSourceCount;
+    private SharedResults sharedResults;
+    private final Map<SourceUnit, String> fingerprints = new IdentityHashMap<>();
+    private final Map<SourceUnit, Boolean> passedBefore = new IdentityHashMap<>();
+    private int reportedErrors;
+    private ClassNode currentClass;
+    private DeferredChecks deferredChecks;
+
+    public KlumCastTransformation() {
+        this(new CompilationScope(), null, null);
+    }
+
+    private KlumCastTransformation(CompilationScope scope, List<PendingError> pendingErrors,
+                                   List<AnnotationUse> collectedUses) {
+        this.scope = scope;
+        this.pendingErrors = pendingErrors;
+        this.collectedUses = collectedUses;
+    }
+
+    @Override
+    public void setCompilationUnit(CompilationUnit unit) {
+        this.compilationUnit = unit;
+    }
+
     @Override
     public void visit(ASTNode[] nodes, SourceUnit source) {
         this.sourceUnit = source;
+        ValidationEvents.SourceUnitEvent event = new ValidationEvents.SourceUnitEvent();
+        event.begin();
+        scope.useClassLoader(source.getClassLoader());
+        ValidationOptions options = compilationUnit != null ? ValidationOptions.of(compilationUnit.getConfiguration()) : null;
+        if (options != null && !optionsApplied) applyOptions(options, source);
+        long start = scope.getProfile().start();
+        int errorsBefore = reportedErrors;
+        boolean skipped = passedBefore(source);
+        if (!skipped) {
+            validate(source, options);
+            boolean clean = reportedErrors == errorsBefore;
+            if (incremental != null) incremental.record(source, fingerprint(source), clean);
+            if (sharedResults != null && clean) sharedResults.passed(fingerprint(source));
+        }
+        if (event.isEnabled()) {
+            event.sourceUnit = source.getName();
+            event.skipped = skipped;
+            event.errors = reportedErrors - errorsBefore;
+            event.commit();
+        }
+        scope.getProfile().sourceUnitTransformed(source.getName(), start, reportedErrors - errorsBefore);
+        if (profileDirectory != null) writeProfileAfterLastSource(source);
+    }
+
+    private void applyOptions(ValidationOptions options, SourceUnit source) {
+        optionsApplied = true;
+        if (options.getProfileDirectory() != null) {
+            profileDirectory = options.getProfileDirectory();
+            scope.getProfile().enable();
+        }
+        if (options.getDigestFile() != null) scope.getClassDigests().persistIn(options.getDigestFile());
+        if (options.getStateFile() != null) incremental = IncrementalState.open(options.getStateFile());
+        if (options.getStore() != null) sharedResults = openSharedResults(options.getStore(), source);
+    }
+
+    /** @return the configured store, or {@code null} after warning that it cannot be opened */
+    private static SharedResults openSharedResults(String location, SourceUnit source) {
+        try {
+            return SharedResults.open(location, KlumCastTransformation.class.getClassLoader());
+        } catch (IOException exception) {
+            source.getErrorCollector().addWarning(new WarningMessage(WarningMessage.LIKELY_ERRORS,
+                    "KlumCast result store disabled: " + exception.getMessage(), null, source));
+            return null;
+        }
+    }
+
+    /**
+     * Writes the profile once every source unit of the compilation unit was transformed. Groovy offers no hook at the end
+     * of the compilation, and source units added later by other transformations rewrite the report when they are done.
+     */
+    private void writeProfileAfterLastSource(SourceUnit source) {
+        transformedSources.add(source);
+        if (transformedSources.size() < knownSourceCount) return;
+        int sources = 0;
+        for (Iterator<SourceUnit> iterator = compilationUnit.iterator(); iterator.hasNext(); iterator.next()) sources++;
+        knownSourceCount = sources;
+        if (transformedSources.size() >= sources) scope.getProfile().writeTo(profileDirectory, scope.getCounters());
+    }
+
+    /** @return whether the unit is known to pass from the previous build or the shared store; decided once per unit */
+    private boolean passedBefore(SourceUnit source) {
+        if (incremental == null && sharedResults == null) return false;
+        Boolean known = passedBefore.get(source);
+        if (known != null) return known;
+        String fingerprint = fingerprint(source);
+        if (incremental != null && incremental.isUnchanged(source, fingerprint)) {
+            scope.sourceUnitUnchanged();
+            known = true;
+        } else if (sharedResults != null && sharedResults.hasPassed(fingerprint)) {
+            scope.sharedResultUsed();
+            if (incremental != null) incremental.record(source, fingerprint, true);
+            known = true;
+        } else {
+            known = false;
+        }
+        passedBefore.put(source, known);
+        return known;
+    }
+
+    private String fingerprint(SourceUnit source) {
+        // the declarations do not change during validation, so each unit is fingerprinted once
+        if (!fingerprints.containsKey(source)) fingerprints.put(source, SourceFingerprint.of(source.getAST(), scope));
+        return fingerprints.get(source);
+    }
+
+    private void validate(SourceUnit source, ValidationOptions options) {
+        if (options != null && options.isBatch()) {
+            if (batch == null) batch = validateInBatch(options);
+            List<AnnotationUse> uses = batch.removeUses(source);
+            // units added after the batch pass are validated per source unit
+            if (uses != null) {
+                reportUses(uses);
+                return;
+            }
+        } else if (options != null && options.isParallel()) {
+            if (parallelResults == null) parallelResults = validateInParallel(options);
+            UnitResult result = parallelResults.remove(source);
+            // units added after the parallel pass are validated serially
+            if (result != null) {
+                result.report(this);
+                return;
+            }
+        }
+        visitSource(source);
+    }
+
+    private void visitSource(SourceUnit source) {
+        if (!CandidateScan.hasCandidates(source.getAST(), scope)) {
+            scope.sourceUnitSkipped();
+            return;
+        }
         source.getAST().getClasses().forEach(this::visit);
     }
 
+    @Override
+    public void addError(String msg, ASTNode expr) {
+        if (pendingErrors != null) {
+            pendingErrors.add(new PendingError(msg, expr));
+        } else {
+            reportedErrors++;
+            super.addError(msg, expr);
+        }
+    }
+
+    private List<SourceUnit> getSourcesWithAst() {
+        List<SourceUnit> sources = new ArrayList<>();
+        compilationUnit.iterator().forEachRemaining(source -> {
+            if (source.getAST() != null && !passedBefore(source)) sources.add(source);
+        });
+        return sources;
+    }
+
+    private BatchValidation validateInBatch(ValidationOptions options) {
+        BatchValidation result = new BatchValidation(scope);
+        for (SourceUnit source : getSourcesWithAst()) {
+            List<AnnotationUse> uses = new ArrayList<>();
+            KlumCastTransformation collector = new KlumCastTransformation(scope, null, uses);
+            collector.sourceUnit = source;
+            collector.visitSource(source);
+            result.collect(source, uses);
+        }
+        if (!options.isParallel()) {
+            result.validate(null);
+            return result;
+        }
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            result.validate(pool);
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    private void reportUses(List<AnnotationUse> uses) {
+        DeferredChecks classChecks = new DeferredChecks(null);
+        for (AnnotationUse use : uses) {
+            // uses are in traversal order, so a new owner means the previous class is complete
+            if (use.getOwner() != classChecks.getOwner()) {
+                report(classChecks.complete(scope.getProfile()));
+                classChecks = new DeferredChecks(use.getOwner());
+            }
+            if (use.getFailure() != null) throw use.getFailure();
+            report(use.getDiagnostics());
+            classChecks.addAll(use.getDeferred());
+        }
+        report(classChecks.complete(scope.getProfile()));
+    }
+
+    private void report(List<Diagnostic> diagnostics) {
+        for (Diagnostic diagnostic : diagnostics) {
+            if (ValidationListeners.ACTIVE) ValidationListeners.diagnosticEmitted(diagnostic);
+            addError(renderDiagnostic(diagnostic), diagnostic.getPrimaryNode());
+        }
+    }
+
+    private Map<SourceUnit, UnitResult> validateInParallel(ValidationOptions options) {
+        List<SourceUnit> sources = getSourcesWithAst();
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            List<ForkJoinTask<UnitResult>> tasks = new ArrayList<>(sources.size());
+            for (SourceUnit source : sources) tasks.add(pool.submit(() -> validateBuffered(source, contextLoader)));
+            Map<SourceUnit, UnitResult> results = new IdentityHashMap<>();
+            for (int index = 0; index < sources.size(); index++) results.put(sources.get(index), tasks.get(index).join());
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private UnitResult validateBuffered(SourceUnit source, ClassLoader contextLoader) {
+        Thread worker = Thread.currentThread();
+        ClassLoader workerLoader = worker.getContextClassLoader();
+        worker.setContextClassLoader(contextLoader);
+        List<PendingError> errors = new ArrayList<>();
+        try {
+            KlumCastTransformation unitValidator = new KlumCastTransformation(scope, errors, null);
+            unitValidator.sourceUnit = source;
+            unitValidator.visitSource(source);
+            return new UnitResult(errors, null);
+        } catch (RuntimeException failure) {
+            // reported when the unit is visited, after the diagnostics collected before the failure, as in serial mode
+            return new UnitResult(errors, failure);
+        } finally {
+            worker.setContextClassLoader(workerLoader);
+        }
+    }
+
     public void visit(AnnotatedNode node) {
         if (node instanceof ClassNode)
             visitClass((ClassNode) node);
@@ -72,10 +344,15 @@ public class KlumCastTransformation extends AbstractASTTransformation implements
 
     @Override
     public void visitClass(ClassNode node) {
-        if (node.isAnnotationDefinition() && hasValidationBinding(node, new HashSet<>()))
+        if (node.isAnnotationDefinition() && scope.isValidatedAnnotationType(node))
             return;
+        currentClass = node;
+        deferredChecks = new DeferredChecks(node);
         visitAnnotations(node);
         node.visitContents(this);
+        DeferredChecks classChecks = deferredChecks;
+        deferredChecks = null;
+        report(classChecks.complete(scope.getProfile()));
     }
 
     @Override
@@ -84,10 +361,11 @@ public class KlumCastTransformation extends AbstractASTTransformation implements
     }
 
     protected void visitAnnotations(AnnotatedNode node) {
-        for (AnnotationNode annotation : node.getAnnotations())
-            if (isKlumCastAnnotation(annotation))
-                ValidationHandler.validateAnnotation(annotation, node)
-                        .forEach(diagnostic -> addError(renderDiagnostic(diagnostic), diagnostic.getPrimaryNode()));
+        for (AnnotationNode annotation : node.getAnnotations()) {
+            if (!isKlumCastAnnotation(annotation)) continue;
+            if (collectedUses != null) collectedUses.add(new AnnotationUse(annotation, node, currentClass));
+            else report(ValidationHandler.validateAnnotation(annotation, node, scope, deferredChecks));
+        }
     }
 
     private static String renderDiagnostic(Diagnostic diagnostic) {
@@ -111,19 +389,11 @@ public class KlumCastTransformation extends AbstractASTTransformation implements
 
     private boolean isKlumCastAnnotation(AnnotationNode annotation) {
         if (annotation.isBuiltIn()) return false;
-        return hasValidationBinding(annotation.getClassNode(), new HashSet<>());
+        return scope.isValidatedAnnotationType(annotation.getClassNode());
     }
 
-    private boolean hasValidationBinding(ClassNode annotationType, Set<String> visited) {
-        if (!visited.add(annotationType.getName())) return false;
-        for (AnnotationNode declaration : annotationType.getAnnotations()) {
-            ClassNode type = declaration.getClassNode();
-            if (type.equals(KLUM_CAST_VALIDATED) || type.equals(KLUM_CAST_VALIDATOR) || type.equals(CHECK_BINDING)) {
-                return true;
-            }
-            if (hasValidationBinding(type, visited)) return true;
-        }
-        return false;
+    CompilationScope getScope() {
+        return scope;
     }
 
     @Override
@@ -134,6 +404,7 @@ public class KlumCastTransformation extends AbstractASTTransformation implements
     protected void visitConstructorOrMethod(MethodNode node) {
         visitAnnotations(node);
         for (Parameter param : node.getParameters()) {
+            AstSupport.setDeclaringMethod(param, node);
             visitAnnotations(param);
         }
     }
@@ -149,4 +420,30 @@ public class KlumCastTransformation extends AbstractASTTransformation implements
         // Handling changed with Groovy 4, where PropertyNodes DID hold the annotations of their fields leading to
         // unexpected behaviour in case of "instanceof FieldNode"
     }
+
+    private static final class PendingError {
+        private final String message;
+        private final ASTNode node;
+
+        private PendingError(String message, ASTNode node) {
+            this.message = message;
+            this.node = node;
+        }
+    }
+
+    /** The buffered outcome of validating one source unit on a worker thread. */
+    private static final class UnitResult {
+        private final List<PendingError> errors;
+        private final RuntimeException failure;
+
+        private UnitResult(List<PendingError> errors, RuntimeException failure) {
+            this.errors = errors;
+            this.failure = failure;
+        }
+
+        private void report(KlumCastTransformation transformation) {
+            for (PendingError error : errors) transformation.addError(error.message, error.node);
+            if (failure != null) throw failure;
+        }
+    }
 }
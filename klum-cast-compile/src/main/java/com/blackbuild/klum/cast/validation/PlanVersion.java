@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.KlumCastValidator;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Digest of the class files a {@link ValidationPlan} depends on.
+ *
+ * <p>Starting at the validated annotation type, the digest covers every annotation type reachable through annotations
+ * and annotation members, every class named by a {@code Class} member, and every class named by a {@code String} member
+ * that resolves to a class file. JDK classes are skipped. Any change to a validation annotation library or a check
+ * implementation therefore yields a different version. Classes defined without a class file, for example by a
+ * {@code GroovyClassLoader} from source, cannot be versioned. Neither can plans whose name-bound checks or filters are
+ * not visible to the class loader of the validated annotation type, because validation may resolve them through the
+ * class loader of the target instead.</p>
+ */
+final class PlanVersion {
+
+    private final ClassLoader loader;
+    private final ClassDigests classDigests;
+    private final MessageDigest digest = newDigest();
+    private final Set<String> visited = new HashSet<>();
+    private boolean complete = true;
+
+    private PlanVersion(ClassLoader loader, ClassDigests classDigests) {
+        this.loader = loader;
+        this.classDigests = classDigests;
+    }
+
+    /**
+     * @param type the validated annotation type
+     * @param classDigests the digests of class files already read
+     * @return the hex encoded version of the type's validation, or {@code null} if a class has no class file
+     * @throws IllegalStateException if a class file or annotation member cannot be read
+     */
+    static String of(Class<? extends Annotation> type, ClassDigests classDigests) {
+        PlanVersion version = new PlanVersion(type.getClassLoader(), classDigests);
+        version.addAnnotationType(type);
+        return version.complete ? HexFormat.of().formatHex(version.digest.digest()) : null;
+    }
+
+    static MessageDigest newDigest() {
+        try { return MessageDigest.getInstance("SHA-256"); }
+        catch (NoSuchAlgorithmException exception) { throw new IllegalStateException("SHA-256 is not available", exception); }
+    }
+
+    private void addAnnotationType(Class<? extends Annotation> type) {
+        if (!addClass(type)) return;
+        for (Annotation annotation : type.getDeclaredAnnotations()) addAnnotation(annotation);
+        Method[] members = type.getDeclaredMethods();
+        Arrays.sort(members, Comparator.comparing(Method::getName));
+        for (Method member : members) {
+            for (Annotation annotation : member.getDeclaredAnnotations()) addAnnotation(annotation);
+        }
+    }
+
+    private void addAnnotation(Annotation annotation) {
+        Class<? extends Annotation> type = annotation.annotationType();
+        if (type.getClassLoader() == null) return;
+        addAnnotationType(type);
+        Method[] members = type.getDeclaredMethods();
+        Arrays.sort(members, Comparator.comparing(Method::getName));
+        for (Method member : members) {
+            try {
+                addValue(AnnotationMembers.accessor(member, Object.class).invoke(annotation));
+            } catch (Throwable exception) {
+                throw new IllegalStateException("Could not read member " + member.getName() + " of " + annotation, exception);
+            }
+        }
+        if (annotation instanceof KlumCastValidator) requireClass(((KlumCastValidator) annotation).value());
+        for (FilterHandler.BoundFilter filter : FilterHandler.bind(annotation)) requireClass(filter.getFilterName());
+    }
+
+    /** Marks the version incomplete if a name-bound check or filter has no class file visible to the loader. */
+    private void requireClass(String name) {
+        if (name == null || name.isEmpty() || visited.contains(name)) return;
+        if (!addClass(name, loader)) complete = false;
+    }
+
+    private void addValue(Object value) {
+        if (value instanceof Class) {
+            Class<?> type = (Class<?>) value;
+            if (type.isAnnotation()) addAnnotationType(type.asSubclass(Annotation.class));
+            else addClass(type);
+        } else if (value instanceof Annotation) {
+            addAnnotation((Annotation) value);
+        } else if (value instanceof String) {
+            addClass((String) value, loader);
+        } else if (value != null && value.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(value); i++) addValue(Array.get(value, i));
+        }
+    }
+
+    private boolean addClass(Class<?> type) {
+        if (type.getClassLoader() == null || visited.contains(type.getName())) return false;
+        if (addClass(type.getName(), type.getClassLoader())) return true;
+        complete = false;
+        return false;
+    }
+
+    /** @return whether the class file was found and not digested before */
+    private boolean addClass(String name, ClassLoader classLoader) {
+        if (name.isEmpty() || classLoader == null || visited.contains(name)) return false;
+        URL classFile = classLoader.getResource(name.replace('.', '/') + ".class");
+        if (classFile == null) return false;
+        visited.add(name);
+        try {
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            digest.update(classDigests.digest(classFile).getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException exception) {
+            throw new IllegalStateException("Could not read class file of " + name, exception);
+        }
+    }
+}
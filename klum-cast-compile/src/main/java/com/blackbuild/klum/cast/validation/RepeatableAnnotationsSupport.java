@@ -23,19 +23,33 @@
  */
 package com.blackbuild.klum.cast.validation;
 
-import org.codehaus.groovy.runtime.InvokerHelper;
-import org.jetbrains.annotations.NotNull;
-
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Repeatable;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Optional;
 import java.util.stream.Stream;
 
 public class RepeatableAnnotationsSupport {
 
+    /**
+     * Per annotation type, the accessor of the {@code value()} member if the type is the container of a repeatable
+     * annotation, or {@code null} otherwise.
+     */
+    private static final ClassValue<MethodHandle> CONTAINER_VALUES = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            Method values = getSingleValuesMemberMethod(type);
+            if (values == null || !isRepeatableContainer(type, values.getReturnType())) return null;
+            try {
+                return AnnotationMembers.accessor(values, Annotation[].class);
+            } catch (IllegalAccessException exception) {
+                throw new IllegalStateException("Could not access values of repeatable container " + type.getName(), exception);
+            }
+        }
+    };
+
     private RepeatableAnnotationsSupport() {}
 
     /**
@@ -45,22 +59,17 @@ public class RepeatableAnnotationsSupport {
      * @return
      */
     public static Stream<Annotation> unwrapAnnotations(Annotation annotation) {
-        Optional<Method> values = getSingleValuesMemberMethod(annotation);
-        if (values.isEmpty())
-            return Stream.of(annotation);
-
-        Class<?> returnType = values.get().getReturnType();
-
-        if (!returnType.isArray())
-            return Stream.of(annotation);
-        if (!returnType.getComponentType().isAnnotation())
-            return Stream.of(annotation);
-        if (!returnType.getComponentType().isAnnotationPresent(Repeatable.class))
-            return Stream.of(annotation);
-        if (!returnType.getComponentType().getAnnotation(Repeatable.class).value().equals(annotation.annotationType()))
+        MethodHandle values = CONTAINER_VALUES.get(annotation.annotationType());
+        if (values == null)
             return Stream.of(annotation);
 
-        return Arrays.stream((Annotation[]) InvokerHelper.invokeMethod(annotation, "value", InvokerHelper.EMPTY_ARGS));
+        try {
+            return Arrays.stream((Annotation[]) values.invokeExact(annotation));
+        } catch (RuntimeException | Error exception) {
+            throw exception;
+        } catch (Throwable exception) {
+            throw new IllegalStateException("Could not unwrap repeatable container " + annotation.annotationType().getName(), exception);
+        }
     }
 
     public static Stream<Annotation> getAllAnnotations(AnnotatedElement element) {
@@ -68,12 +77,21 @@ public class RepeatableAnnotationsSupport {
                 .flatMap(a -> unwrapAnnotations(a));
     }
 
-    @NotNull
-    private static Optional<Method> getSingleValuesMemberMethod(Annotation annotation) {
-        Method[] methods = annotation.annotationType().getDeclaredMethods();
+    private static boolean isRepeatableContainer(Class<?> containerType, Class<?> returnType) {
+        if (!returnType.isArray())
+            return false;
+        if (!returnType.getComponentType().isAnnotation())
+            return false;
+        if (!returnType.getComponentType().isAnnotationPresent(Repeatable.class))
+            return false;
+        return returnType.getComponentType().getAnnotation(Repeatable.class).value().equals(containerType);
+    }
+
+    private static Method getSingleValuesMemberMethod(Class<?> annotationType) {
+        Method[] methods = annotationType.getDeclaredMethods();
         if (methods.length != 1 || !methods[0].getName().equals("value"))
-            return Optional.empty();
-        return Optional.of(methods[0]);
+            return null;
+        return methods[0];
     }
 
 
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.ResultStore;
+import com.blackbuild.klum.cast.spi.ResultStoreProvider;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link ResultStore} configured for a compilation, keyed by content hashes of source unit fingerprints.
+ *
+ * <p>A key combines the {@link SourceFingerprint} of a unit, which already covers the class files of every validation
+ * annotation and check it uses, with the {@link CompilerVersion}. The first failing store access disables the store
+ * for the rest of the compilation, so an unreachable store costs at most one timeout. A store that cannot be opened at
+ * all is reported as a compiler warning, and the compilation validates without it.</p>
+ */
+final class SharedResults {
+
+    private final ResultStore store;
+    private boolean available = true;
+
+    private SharedResults(ResultStore store) {
+        this.store = store;
+    }
+
+    /**
+     * @param location the configured location, a URI or a plain directory path
+     * @param loader the class loader discovering {@link ResultStoreProvider}s
+     * @return the shared results, or {@code null} if the compiler cannot be versioned
+     * @throws IOException if no provider handles the location or the store cannot be opened
+     */
+    static SharedResults open(String location, ClassLoader loader) throws IOException {
+        if (CompilerVersion.get() == null) return null;
+        URI uri = toUri(location);
+        for (ResultStoreProvider provider : ServiceLoader.load(ResultStoreProvider.class, loader)) {
+            ResultStore store = provider.open(uri);
+            if (store != null) return new SharedResults(store);
+        }
+        throw new IOException("No result store provider supports " + location);
+    }
+
+    /** @return whether a unit with the given fingerprint passed before, {@code false} for units without one */
+    boolean hasPassed(String fingerprint) {
+        if (!available || fingerprint == null) return false;
+        try {
+            return store.hasPassed(key(fingerprint));
+        } catch (IOException | RuntimeException exception) {
+            available = false;
+            return false;
+        }
+    }
+
+    /** Records a passing unit. */
+    void passed(String fingerprint) {
+        if (!available || fingerprint == null) return;
+        try {
+            store.passed(key(fingerprint));
+        } catch (IOException | RuntimeException exception) {
+            available = false;
+        }
+    }
+
+    private static String key(String fingerprint) {
+        MessageDigest digest = PlanVersion.newDigest();
+        digest.update(CompilerVersion.get().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static URI toUri(String location) {
+        // single letter schemes are Windows drive letters
+        int colon = location.indexOf(':');
+        return colon > 1 ? URI.create(location) : Path.of(location).toUri();
+    }
+}
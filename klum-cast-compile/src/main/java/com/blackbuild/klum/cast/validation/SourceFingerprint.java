@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.GenericsType;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.Expression;
+
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Digest of everything the validation of one source unit may observe.
+ *
+ * <p>The fingerprint covers the declarations of every class in the unit: names, modifiers, super types, field,
+ * constructor, method, and parameter types including the type hierarchies they resolve to, and all annotations with
+ * their member source text. Uses of validated annotations additionally contribute the {@link ValidationPlan#getVersion
+ * version} of their plan. Method bodies, initial values, and source positions are not part of the fingerprint; checks
+ * only see declarations, and positions only matter for diagnostics, which an unchanged unit without diagnostics never
+ * reports.</p>
+ *
+ * <p>Checks may also read the declarations of the types a unit references. Referenced types compiled from other source
+ * units therefore contribute a {@link #declarationOf declaration digest} as well. It covers the same declarations as
+ * above, but not the types those types reference in turn. Referenced types from class files are only covered by
+ * name.</p>
+ */
+final class SourceFingerprint {
+
+    private final CompilationScope scope;
+    private final ModuleNode module;
+    private final Map<String, ClassNode> referencedTypes = new TreeMap<>();
+    private final MessageDigest digest = PlanVersion.newDigest();
+
+    private SourceFingerprint(CompilationScope scope, ModuleNode module) {
+        this.scope = scope;
+        this.module = module;
+    }
+
+    /**
+     * @param module the AST of the source unit
+     * @param scope the scope classifying annotation types
+     * @return the hex encoded fingerprint, or {@code null} if a used validation plan cannot be versioned
+     */
+    static String of(ModuleNode module, CompilationScope scope) {
+        SourceFingerprint fingerprint = new SourceFingerprint(scope, module);
+        for (ClassNode type : module.getClasses()) {
+            if (!fingerprint.addClass(type)) return null;
+        }
+        for (ClassNode type : fingerprint.referencedTypes.values()) {
+            String declaration = scope.getDeclarationDigest(type);
+            if (declaration == null) return null;
+            fingerprint.add("references", type.getName(), declaration);
+        }
+        return HexFormat.of().formatHex(fingerprint.digest.digest());
+    }
+
+    /**
+     * @param type a class compiled from source
+     * @param scope the scope classifying annotation types
+     * @return the hex encoded digest of the declarations of the type, or {@code null} if a used validation plan cannot
+     * be versioned
+     */
+    static String declarationOf(ClassNode type, CompilationScope scope) {
+        SourceFingerprint fingerprint = new SourceFingerprint(scope, null);
+        return fingerprint.addClass(type) ? HexFormat.of().formatHex(fingerprint.digest.digest()) : null;
+    }
+
+    private boolean addClass(ClassNode type) {
+        add("class", type.getName(), type.getModifiers());
+        addType(type.getUnresolvedSuperClass(false));
+        for (ClassNode face : type.getInterfaces()) addType(face);
+        if (!addAnnotations(type)) return false;
+        for (FieldNode field : type.getFields()) {
+            add("field", field.getName(), field.getModifiers());
+            addType(field.getType());
+            if (!addAnnotations(field)) return false;
+        }
+        for (MethodNode constructor : type.getDeclaredConstructors()) {
+            if (!addMethod("constructor", constructor)) return false;
+        }
+        for (MethodNode method : type.getMethods()) {
+            if (!addMethod("method", method)) return false;
+        }
+        return true;
+    }
+
+    private boolean addMethod(String kind, MethodNode method) {
+        add(kind, method.getName(), method.getModifiers());
+        addType(method.getReturnType());
+        if (!addAnnotations(method)) return false;
+        for (Parameter parameter : method.getParameters()) {
+            add("parameter", parameter.getName(), parameter.getModifiers());
+            addType(parameter.getType());
+            if (!addAnnotations(parameter)) return false;
+        }
+        return true;
+    }
+
+    private boolean addAnnotations(AnnotatedNode node) {
+        for (AnnotationNode annotation : node.getAnnotations()) {
+            add("@", annotation.getClassNode().getName());
+            Map<String, String> members = new TreeMap<>();
+            for (Map.Entry<String, Expression> member : annotation.getMembers().entrySet()) {
+                members.put(member.getKey(), member.getValue().getText());
+            }
+            members.forEach(this::add);
+            if (!annotation.isBuiltIn() && scope.isValidatedAnnotationType(annotation.getClassNode())) {
+                if (annotation.getClassNode().isPrimaryClassNode()) return false;
+                Class<?> annotationType = annotation.getClassNode().getTypeClass();
+                String version = ValidationPlan.of(annotationType.asSubclass(Annotation.class)).getVersion(scope.getClassDigests());
+                if (version == null) return false;
+                add("plan", version);
+            }
+        }
+        return true;
+    }
+
+    private void addType(ClassNode type) {
+        if (type == null) return;
+        add("type", type.toString(false));
+        if (type.isGenericsPlaceHolder()) return;
+        reference(type);
+        if (type.getGenericsTypes() != null) {
+            for (GenericsType argument : type.getGenericsTypes()) {
+                if (argument.isPlaceholder()) continue;
+                if (!argument.isWildcard()) reference(argument.getType());
+                if (argument.getUpperBounds() != null) for (ClassNode bound : argument.getUpperBounds()) reference(bound);
+                if (argument.getLowerBound() != null) reference(argument.getLowerBound());
+            }
+        }
+        for (ClassNode current = type.redirect().getSuperClass(); current != null; current = current.getSuperClass()) {
+            add("extends", current.getName());
+            reference(current);
+        }
+        Set<String> interfaces = new TreeSet<>();
+        for (ClassNode face : type.redirect().getAllInterfaces()) {
+            interfaces.add(face.getName());
+            reference(face);
+        }
+        for (String face : interfaces) add("implements", face);
+    }
+
+    /** Remembers a type that is compiled from another source unit of the compilation. */
+    private void reference(ClassNode type) {
+        if (module == null) return;
+        ClassNode declaration = type.redirect();
+        if (declaration.isPrimaryClassNode() && declaration.getModule() != module) {
+            referencedTypes.putIfAbsent(declaration.getName(), declaration);
+        }
+    }
+
+    private void add(Object... parts) {
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+}
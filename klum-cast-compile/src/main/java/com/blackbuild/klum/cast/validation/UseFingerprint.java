@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Deterministic;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.Expression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Structural identity of one check invocation, as far as a {@link Deterministic} check may observe it.
+ *
+ * <p>Two invocations with equal fingerprints are guaranteed the same outcome by such a check. Annotation values are
+ * compared through their annotation equality, validated annotation members through their source text, and types
+ * through their fully qualified names including generics. Class targets are identified by name because their shape
+ * includes the whole class.</p>
+ */
+final class UseFingerprint {
+
+    private final List<Object> components;
+    private final int hash;
+
+    private UseFingerprint(List<Object> components) {
+        this.components = components;
+        this.hash = components.hashCode();
+    }
+
+    /**
+     * @param context the invocation to describe
+     * @return the fingerprint, or {@code null} if the target kind has no structural description
+     */
+    static UseFingerprint of(CheckContext context) {
+        List<Object> components = new ArrayList<>();
+        if (!addTargetShape(context.getTarget(), components)) return null;
+        components.add(context.getValidatedAnnotation().getClassNode().getName());
+        Map<String, String> members = new TreeMap<>();
+        for (Map.Entry<String, Expression> member : context.getValidatedAnnotation().getMembers().entrySet()) {
+            members.put(member.getKey(), member.getValue().getText());
+        }
+        components.add(members);
+        components.add(context.getControlAnnotation().orElse(null));
+        components.add(context.getBinding().getDeclaration());
+        components.add(context.getMemberName().orElse(null));
+        components.add(context.getCompositionPath());
+        return new UseFingerprint(components);
+    }
+
+    private static boolean addTargetShape(AnnotatedNode target, List<Object> components) {
+        components.add(target.getClass());
+        if (target instanceof ClassNode) {
+            ClassNode type = (ClassNode) target;
+            components.add(type.getName());
+            components.add(type.getModifiers());
+        } else if (target instanceof FieldNode) {
+            FieldNode field = (FieldNode) target;
+            components.add(field.getModifiers());
+            components.add(field.getType().toString(false));
+        } else if (target instanceof MethodNode) {
+            MethodNode method = (MethodNode) target;
+            components.add(method.getModifiers());
+            components.add(method.getReturnType().toString(false));
+            for (Parameter parameter : method.getParameters()) components.add(parameter.getType().toString(false));
+        } else if (target instanceof Parameter) {
+            Parameter parameter = (Parameter) target;
+            components.add(parameter.getModifiers());
+            components.add(parameter.getType().toString(false));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof UseFingerprint
+                && hash == ((UseFingerprint) other).hash && components.equals(((UseFingerprint) other).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.lang.annotation.Annotation;
+import java.util.Optional;
+
+/**
+ * Java Flight Recorder events emitted by the validation engine.
+ *
+ * <p>Events are created around the measured work and only populated and committed if {@link Event#isEnabled()}, so
+ * they cost a short-lived allocation that the JIT usually eliminates when no recording is running. The events are
+ * enabled in every recording by default and can be disabled or given a threshold in a recording settings file by
+ * their names, for example {@code com.blackbuild.klum.cast.Check}. Stack traces are not recorded; the fields
+ * identify the source of the cost.</p>
+ */
+final class ValidationEvents {
+
+    private static final String CATEGORY = "KlumCast";
+
+    private ValidationEvents() {}
+
+    /** @return the type name of the annotation controlling a check or filter, {@code null} if there is none */
+    static String nameOf(Optional<Annotation> controlAnnotation) {
+        return controlAnnotation.map(annotation -> annotation.annotationType().getName()).orElse(null);
+    }
+
+    /** The transformation of one source unit. */
+    @Name("com.blackbuild.klum.cast.SourceUnit")
+    @Label("Source Unit Validation")
+    @Category({CATEGORY, "Validation"})
+    @Description("KlumCast transformation of one source unit. With parallel or batch validation, the first source unit "
+            + "of a compilation unit also covers validating all others.")
+    @StackTrace(false)
+    static final class SourceUnitEvent extends Event {
+        @Label("Source Unit")
+        String sourceUnit;
+
+        @Label("Skipped")
+        @Description("The unit passed in the previous build or in the shared result store and was not validated")
+        boolean skipped;
+
+        @Label("Errors")
+        int errors;
+    }
+
+    /** The validation of one use of a validated annotation. */
+    @Name("com.blackbuild.klum.cast.AnnotationUse")
+    @Label("Annotation Use Validation")
+    @Category({CATEGORY, "Validation"})
+    @Description("Validation of one use of a validated annotation, including all checks of its composition")
+    @StackTrace(false)
+    static final class AnnotationUseEvent extends Event {
+        @Label("Annotation Type")
+        String annotationType;
+
+        @Label("Target Kind")
+        @Description("The element type of the annotated target")
+        String targetKind;
+
+        @Label("Diagnostics")
+        int diagnostics;
+    }
+
+    /** One invocation of a check. */
+    @Name("com.blackbuild.klum.cast.Check")
+    @Label("Check Invocation")
+    @Category({CATEGORY, "Checks"})
+    @Description("One invocation of a check, or one batch invocation for all deferred uses of a class")
+    @StackTrace(false)
+    static final class CheckEvent extends Event {
+        @Label("Implementation")
+        String implementation;
+
+        @Label("Declared By")
+        @Description("The annotation type whose composition binds the check")
+        String declaration;
+
+        @Label("Outcome")
+        @Description("PASSED, FAILED, REUSED for deterministic outcomes answered without running the check, or DEFERRED "
+                + "for batch checks executed once the class is complete")
+        String outcome;
+
+        @Label("Diagnostics")
+        int diagnostics;
+    }
+
+    /** One evaluation of an applicability filter. */
+    @Name("com.blackbuild.klum.cast.Filter")
+    @Label("Filter Evaluation")
+    @Category({CATEGORY, "Checks"})
+    @Description("One evaluation of an applicability filter")
+    @StackTrace(false)
+    static final class FilterEvent extends Event {
+        @Label("Implementation")
+        String implementation;
+
+        @Label("Declared By")
+        @Description("The annotation type whose composition binds the filter")
+        String declaration;
+
+        @Label("Applies")
+        boolean applies;
+    }
+}
@@ -23,34 +23,31 @@
  */
 package com.blackbuild.klum.cast.validation;
 
-import com.blackbuild.klum.cast.KlumCastValidated;
 import com.blackbuild.klum.cast.KlumCastValidator;
 import com.blackbuild.klum.cast.checks.OneCheckMustMatch;
-import com.blackbuild.klum.cast.DiagnosticMessage;
-import com.blackbuild.klum.cast.DiagnosticMessages;
+import com.blackbuild.klum.cast.spi.AnnotationIndex;
+import com.blackbuild.klum.cast.spi.BatchCheck;
 import com.blackbuild.klum.cast.spi.BindingMetadata;
 import com.blackbuild.klum.cast.spi.Check;
 import com.blackbuild.klum.cast.spi.CheckBinding;
 import com.blackbuild.klum.cast.spi.CheckContext;
 import com.blackbuild.klum.cast.spi.Diagnostic;
 import com.blackbuild.klum.cast.spi.DiagnosticDefinition;
+import com.blackbuild.klum.cast.spi.ValidationListener;
 import com.blackbuild.klum.cast.checks.impl.KlumCastCheck;
 import org.codehaus.groovy.ast.AnnotatedNode;
 import org.codehaus.groovy.ast.AnnotationNode;
 import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.HashSet;
 import java.util.stream.Collectors;
 
 /** Internal compiler orchestration for the public check SPI. */
@@ -60,6 +57,8 @@ public class ValidationHandler {
 
     private final AnnotationNode annotationToValidate;
     private final AnnotatedNode target;
+    private final CompilationScope scope;
+    private final DeferredChecks deferred;
     private final List<Diagnostic> diagnostics = new ArrayList<>();
     private final List<Annotation> compositionPath = new ArrayList<>();
     private String currentMember;
@@ -68,8 +67,19 @@ public class ValidationHandler {
     public static final String METADATA_KEY = ValidationHandler.class.getName();
 
     ValidationHandler(AnnotationNode annotationToValidate, AnnotatedNode target) {
+        this(annotationToValidate, target, new CompilationScope());
+    }
+
+    ValidationHandler(AnnotationNode annotationToValidate, AnnotatedNode target, CompilationScope scope) {
+        this(annotationToValidate, target, scope, null);
+    }
+
+    ValidationHandler(AnnotationNode annotationToValidate, AnnotatedNode target, CompilationScope scope,
+                      DeferredChecks deferred) {
         this.annotationToValidate = annotationToValidate;
         this.target = target;
+        this.scope = scope;
+        this.deferred = deferred;
     }
 
     public static boolean alreadyValidated(AnnotationNode annotationNode) {
@@ -80,39 +90,118 @@ public class ValidationHandler {
         annotationNode.setNodeMetaData(METADATA_KEY, status);
     }
 
+    /**
+     * Validates one use. A {@link Parameter} target must have a declaring class, otherwise use
+     * {@link #validateAnnotation(AnnotationNode, Parameter, MethodNode)}.
+     */
     public static List<Diagnostic> validateAnnotation(AnnotationNode annotationToValidate, AnnotatedNode target) {
+        return validateAnnotation(annotationToValidate, target, new CompilationScope(), null);
+    }
+
+    /** Validates one use on a parameter of the given method. */
+    public static List<Diagnostic> validateAnnotation(AnnotationNode annotationToValidate, Parameter target, MethodNode method) {
+        AstSupport.setDeclaringMethod(target, method);
+        return validateAnnotation(annotationToValidate, target);
+    }
+
+    /**
+     * Validates one use. Invocations of {@link BatchCheck}s are added to {@code deferred} and executed once the
+     * enclosing class is complete; without a collector they are executed per use.
+     */
+    static List<Diagnostic> validateAnnotation(AnnotationNode annotationToValidate, AnnotatedNode target,
+                                               CompilationScope scope, DeferredChecks deferred) {
         if (alreadyValidated(annotationToValidate)) return Collections.emptyList();
         if (!annotationToValidate.getClassNode().isResolved()) {
             return Collections.singletonList(new Diagnostic("klum-cast.unresolved-annotation",
                     "Validated annotation must have already been compiled", annotationToValidate));
         }
-        return new ValidationHandler(annotationToValidate, target).validate();
+        Class<?> annotationType = annotationToValidate.getClassNode().getTypeClass();
+        ValidationPlan plan = ValidationPlan.of(annotationType.asSubclass(Annotation.class));
+        return new ValidationHandler(annotationToValidate, target, scope, deferred).validate(plan);
     }
 
-    private List<Diagnostic> validate() {
-        validate(annotationToValidate.getClassNode().getTypeClass());
-        Arrays.stream(annotationToValidate.getClassNode().getTypeClass().getDeclaredMethods())
-                .filter(method -> annotationToValidate.getMember(method.getName()) != null)
-                .sorted(Comparator.comparing(Method::getName))
-                .forEach(this::validateMember);
-        setStatus(annotationToValidate, Status.VALIDATED);
-        return diagnostics;
+    /**
+     * Validates a use whose annotation type is already resolved to the given plan, as done by batch validation.
+     */
+    static List<Diagnostic> validateAnnotation(AnnotationNode annotationToValidate, AnnotatedNode target,
+                                               CompilationScope scope, ValidationPlan plan, DeferredChecks deferred) {
+        if (alreadyValidated(annotationToValidate)) return Collections.emptyList();
+        return new ValidationHandler(annotationToValidate, target, scope, deferred).validate(plan);
     }
 
-    private void validateMember(Method method) {
-        currentMember = method.getName();
-        try { validate(method); } finally { currentMember = null; }
+    /**
+     * Executes a batch check once for all deferred invocations of one binding within a class.
+     *
+     * @param registration the registration of the batch check
+     * @param contexts the deferred invocations, in source order
+     * @param profile records the execution
+     * @return the accepted and rendered diagnostics, ordered by context
+     */
+    static List<Diagnostic> executeBatch(CheckRegistry.Registration registration, List<CheckContext> contexts,
+                                          ValidationProfile profile) {
+        BindingMetadata metadata = contexts.get(0).getBinding();
+        ValidationEvents.CheckEvent event = new ValidationEvents.CheckEvent();
+        event.begin();
+        long start = profile.start();
+        try {
+            BatchCheck check = (BatchCheck) registration.instance();
+            if (ValidationListeners.ACTIVE) contexts.forEach(ValidationListeners::checkStarted);
+            Map<CheckContext, List<Diagnostic>> emitted = check.checkAll(List.copyOf(contexts));
+            if (emitted == null) throw technicalFailure(metadata, "returned null diagnostics", null);
+            Map<CheckContext, Boolean> known = new IdentityHashMap<>();
+            contexts.forEach(context -> known.put(context, Boolean.TRUE));
+            if (!known.keySet().containsAll(emitted.keySet())) {
+                throw technicalFailure(metadata, "returned diagnostics for an unknown invocation context", null);
+            }
+            List<Diagnostic> result = new ArrayList<>();
+            for (CheckContext context : contexts) {
+                List<Diagnostic> accepted = emitted.containsKey(context)
+                        ? accept(registration, context.getBinding(), context.getCompositionPath(), emitted.get(context))
+                        : List.of();
+                result.addAll(accepted);
+                if (ValidationListeners.ACTIVE) ValidationListeners.checkFinished(context, accepted);
+            }
+            commit(event, contexts.get(0), result.isEmpty() ? "PASSED" : "FAILED", result.size());
+            profile.checkInvoked(metadata.getImplementationName(), start, result.size());
+            return result;
+        } catch (ReflectiveOperationException exception) {
+            throw technicalFailure(metadata, "could not instantiate it with an accessible no-argument constructor", exception);
+        } catch (ValidationListeners.ListenerFailure failure) {
+            throw failure;
+        } catch (RuntimeException exception) {
+            if (exception.getMessage() != null && exception.getMessage().startsWith("Technical failure for check ")) throw exception;
+            throw technicalFailure(metadata, "threw while executing", exception);
+        }
     }
 
-    private InvocationOutcome validate(AnnotatedElement element) {
-        List<Annotation> annotations = RepeatableAnnotationsSupport.getAllAnnotations(element)
-                .collect(Collectors.toList());
-        boolean hasOrComposition = annotations.stream().anyMatch(OneCheckMustMatch.class::isInstance);
+    private List<Diagnostic> validate(ValidationPlan plan) {
+        ValidationEvents.AnnotationUseEvent event = new ValidationEvents.AnnotationUseEvent();
+        event.begin();
+        long start = scope.getProfile().start();
+        if (ValidationListeners.ACTIVE) ValidationListeners.useStarted(annotationToValidate, target);
+        execute(plan.getSteps());
+        for (ValidationPlan.MemberPlan member : plan.getMembers()) {
+            if (annotationToValidate.getMember(member.getName()) == null) continue;
+            currentMember = member.getName();
+            try { execute(member.getSteps()); } finally { currentMember = null; }
+        }
+        setStatus(annotationToValidate, Status.VALIDATED);
+        scope.getProfile().useValidated(plan.getType().getName(), start, diagnostics.size());
+        if (ValidationListeners.ACTIVE) ValidationListeners.useFinished(annotationToValidate, target, diagnostics);
+        if (event.isEnabled()) {
+            event.annotationType = plan.getType().getName();
+            event.targetKind = AstSupport.getElementType(target.getClass()).name();
+            event.diagnostics = diagnostics.size();
+            event.commit();
+        }
+        return diagnostics;
+    }
+
+    private InvocationOutcome execute(List<ValidationPlan.Step> steps) {
         boolean applicable = false;
         boolean failed = false;
-        for (Annotation annotation : annotations) {
-            if (hasOrComposition && isOrBranch(annotation)) continue;
-            InvocationOutcome outcome = handleSingleAnnotation(annotation);
+        for (ValidationPlan.Step step : steps) {
+            InvocationOutcome outcome = handleStep(step);
             applicable |= outcome != InvocationOutcome.NOT_APPLICABLE;
             failed |= outcome == InvocationOutcome.FAILED;
         }
@@ -121,102 +210,112 @@ public class ValidationHandler {
     }
 
     InvocationOutcome handleSingleAnnotation(Annotation annotation) {
-        if (!FilterHandler.isValidFor(annotation, target, currentMember, compositionPath)) {
+        return handleStep(ValidationPlan.Step.of(annotation));
+    }
+
+    private InvocationOutcome handleStep(ValidationPlan.Step step) {
+        Annotation annotation = step.getAnnotation();
+        if (step.hasFilters() && !FilterHandler.isValidFor(scope.getFilters(), step.getFilters(), annotation, target, currentMember, compositionPath)) {
             return InvocationOutcome.NOT_APPLICABLE;
         }
         compositionPath.add(annotation);
         try {
-            if (annotation instanceof OneCheckMustMatch) {
-                return executeOrComposition((OneCheckMustMatch) annotation);
-            } else if (annotation instanceof KlumCastValidator) {
-                return executeLegacyBinding((KlumCastValidator) annotation);
-            } else if (annotation instanceof CheckBinding) {
-                return executeTypedBinding((CheckBinding) annotation);
-            } else if (isValidated(annotation)) {
-                return validate(annotation.annotationType());
+            switch (step.getKind()) {
+                case OR_COMPOSITION: return executeOrComposition((OneCheckMustMatch) annotation);
+                case LEGACY_BINDING: return executeLegacyBinding(step);
+                case TYPED_BINDING: return execute(bindingOf(step, step.getCheckType()), step.getFilterTypes());
+                case VALIDATED: return execute(step.getValidatedPlan().getSteps());
+                default: return InvocationOutcome.NOT_APPLICABLE;
             }
-            return InvocationOutcome.NOT_APPLICABLE;
         } finally {
             compositionPath.remove(compositionPath.size() - 1);
         }
     }
 
-    private static boolean isValidated(Annotation annotation) {
-        return hasValidationBinding(annotation.annotationType(), new HashSet<>());
+    private InvocationOutcome executeLegacyBinding(ValidationPlan.Step step) {
+        if (step.isAmbiguousBinding()) throw new IllegalStateException("@KlumCastValidator must select exactly one check binding.");
+        Class<?> candidate = step.getCheckType() != null ? step.getCheckType() : load(step.getCheckName());
+        return execute(bindingOf(step, candidate), step.getFilterTypes());
     }
 
-    private static boolean hasValidationBinding(Class<? extends Annotation> annotationType,
-                                                Set<Class<? extends Annotation>> visited) {
-        if (!visited.add(annotationType)) return false;
-        if (annotationType.isAnnotationPresent(KlumCastValidated.class)
-                || annotationType.isAnnotationPresent(KlumCastValidator.class)
-                || annotationType.isAnnotationPresent(CheckBinding.class)) return true;
-        for (Annotation annotation : annotationType.getDeclaredAnnotations()) {
-            if (hasValidationBinding(annotation.annotationType(), visited)) return true;
+    private static BindingMetadata bindingOf(ValidationPlan.Step step, Class<?> candidate) {
+        if (!Check.class.isAssignableFrom(candidate)) {
+            throw new IllegalStateException("Configured check " + step.getCheckName() + " does not implement " + Check.class.getName());
         }
-        return false;
-    }
-
-    private InvocationOutcome executeLegacyBinding(KlumCastValidator binding) {
-        boolean hasName = !binding.value().isEmpty();
-        boolean hasType = !binding.type().equals(KlumCastValidator.None.class);
-        if (hasName == hasType) throw new IllegalStateException("@KlumCastValidator must select exactly one check binding.");
-        Class<?> candidate = hasType ? binding.type() : load(binding.value());
-        return execute(binding, candidate, hasName ? binding.value() : candidate.getName(), new Class[0]);
-    }
-
-    private InvocationOutcome executeTypedBinding(CheckBinding binding) {
-        return execute(binding, binding.value(), binding.value().getName(), binding.filters());
+        return step.getBinding(candidate.asSubclass(Check.class));
     }
 
-    private InvocationOutcome execute(Annotation declaration, Class<?> candidate, String implementationName,
-                                      Class<?>[] filterTypes) {
-        if (!Check.class.isAssignableFrom(candidate)) {
-            throw new IllegalStateException("Configured check " + implementationName + " does not implement " + Check.class.getName());
-        }
-        Class<? extends Check> checkType = candidate.asSubclass(Check.class);
-        BindingMetadata metadata = new BindingMetadata(declaration, checkType, implementationName);
+    private InvocationOutcome execute(BindingMetadata metadata, Class<?>[] filterTypes) {
+        Class<? extends Check> checkType = metadata.getCheckType();
         Annotation control = findControlAnnotation();
-        CheckContext context = new CheckContext(annotationToValidate, target, control, currentMember, metadata, compositionPath);
-        if (!FilterHandler.areApplicable(filterTypes, context)) return InvocationOutcome.NOT_APPLICABLE;
+        CheckContext context = new CheckContext(annotationToValidate, target, control, currentMember, metadata, compositionPath,
+                annotationIndex());
+        if (!FilterHandler.areApplicable(scope.getFilters(), filterTypes, context)) return InvocationOutcome.NOT_APPLICABLE;
         try {
-            Check check = checkType.getDeclaredConstructor().newInstance();
-            Map<String, DiagnosticDefinition> definitions = diagnosticDefinitions(check, metadata);
-            validateTemplates(context, definitions, metadata);
-            List<Diagnostic> emitted = check.check(context);
-            if (emitted == null) throw technicalFailure(metadata, "returned null diagnostics", null);
-            for (Diagnostic diagnostic : emitted) {
-                DiagnosticDefinition definition = definitions.get(diagnostic.getCode());
-                if (definition == null) {
-                    throw technicalFailure(metadata, "returned undeclared diagnostic code " + diagnostic.getCode(), null);
-                }
-                if (!definition.getArgumentNames().containsAll(diagnostic.getArguments().keySet())) {
-                    throw technicalFailure(metadata, "returned undeclared diagnostic arguments for " + diagnostic.getCode(), null);
-                }
-                diagnostics.add(render(diagnostic.withProvenance(metadata, compositionPath)));
+            CheckRegistry.Registration registration = scope.getChecks().get(checkType);
+            if (registration.getDuplicateCode() != null) {
+                throw technicalFailure(metadata, "declared diagnostic code " + registration.getDuplicateCode() + " more than once", null);
+            }
+            Check check = registration.instance();
+            validateTemplates(compositionPath, registration, metadata);
+            ValidationEvents.CheckEvent event = new ValidationEvents.CheckEvent();
+            event.begin();
+            long start = scope.getProfile().start();
+            // OR branches need the outcome of each use immediately
+            if (deferred != null && check instanceof BatchCheck && !isInOrComposition()) {
+                deferred.defer(registration, context);
+                commit(event, context, "DEFERRED", 0);
+                return InvocationOutcome.PASSED;
             }
-            return emitted.isEmpty() ? InvocationOutcome.PASSED : InvocationOutcome.FAILED;
+            UseFingerprint fingerprint = registration.isDeterministic() ? UseFingerprint.of(context) : null;
+            if (fingerprint != null && registration.hasPassed(fingerprint)) {
+                scope.outcomeReused();
+                commit(event, context, "REUSED", 0);
+                return InvocationOutcome.PASSED;
+            }
+            if (ValidationListeners.ACTIVE) ValidationListeners.checkStarted(context);
+            List<Diagnostic> accepted = accept(registration, metadata, compositionPath, check.check(context));
+            if (ValidationListeners.ACTIVE) ValidationListeners.checkFinished(context, accepted);
+            if (fingerprint != null && accepted.isEmpty()) registration.passed(fingerprint);
+            diagnostics.addAll(accepted);
+            scope.getProfile().checkInvoked(metadata.getImplementationName(), start, accepted.size());
+            commit(event, context, accepted.isEmpty() ? "PASSED" : "FAILED", accepted.size());
+            return accepted.isEmpty() ? InvocationOutcome.PASSED : InvocationOutcome.FAILED;
         } catch (ReflectiveOperationException exception) {
             throw technicalFailure(metadata, "could not instantiate it with an accessible no-argument constructor", exception);
+        } catch (ValidationListeners.ListenerFailure failure) {
+            throw failure;
         } catch (RuntimeException exception) {
             if (exception.getMessage() != null && exception.getMessage().startsWith("Technical failure for check ")) throw exception;
             throw technicalFailure(metadata, "threw while executing", exception);
         }
     }
 
+    private static void commit(ValidationEvents.CheckEvent event, CheckContext context, String outcome, int diagnostics) {
+        if (!event.isEnabled()) return;
+        event.implementation = context.getBinding().getImplementationName();
+        event.declaration = ValidationEvents.nameOf(context.getControlAnnotation());
+        event.outcome = outcome;
+        event.diagnostics = diagnostics;
+        event.commit();
+    }
+
     private InvocationOutcome executeOrComposition(OneCheckMustMatch composition) {
         Annotation holder = findOrCompositionHolder();
         if (holder == null) {
             throw new IllegalStateException("Technical failure for OR composition: @OneCheckMustMatch must be part of a validation annotation");
         }
-        List<Annotation> branches = directOrBranches(holder);
-        if (branches.isEmpty()) branches = legacyOrBranches(holder);
+        List<ValidationPlan.Step> branches = ValidationPlan.of(holder.annotationType()).getOrBranches(holder);
 
         int firstBranchDiagnostic = diagnostics.size();
         boolean applicable = false;
         boolean passed = false;
-        for (Annotation branch : branches) {
-            InvocationOutcome outcome = handleSingleAnnotation(branch);
+        for (ValidationPlan.Step branch : branches) {
+            InvocationOutcome outcome = handleStep(branch);
+            if (ValidationListeners.ACTIVE) {
+                ValidationListeners.orBranchEvaluated(annotationToValidate, target, branch.getAnnotation(),
+                        ValidationListener.Outcome.valueOf(outcome.name()));
+            }
             applicable |= outcome != InvocationOutcome.NOT_APPLICABLE;
             passed |= outcome == InvocationOutcome.PASSED;
         }
@@ -238,32 +337,34 @@ public class ValidationHandler {
         return InvocationOutcome.FAILED;
     }
 
-    private static boolean isOrBranch(Annotation annotation) {
-        return !(annotation instanceof OneCheckMustMatch) && isValidated(annotation);
-    }
-
-    private static List<Annotation> directOrBranches(Annotation holder) {
-        return Arrays.stream(holder.annotationType().getDeclaredAnnotations())
-                .filter(ValidationHandler::isOrBranch)
-                .sorted(Comparator.comparing(annotation -> annotation.annotationType().getName()))
-                .collect(Collectors.toList());
+    private static List<Diagnostic> accept(CheckRegistry.Registration registration, BindingMetadata metadata,
+                                           List<Annotation> path, List<Diagnostic> emitted) {
+        if (emitted == null) throw technicalFailure(metadata, "returned null diagnostics", null);
+        Map<String, DiagnosticDefinition> definitions = registration.getDefinitions();
+        List<Diagnostic> accepted = new ArrayList<>(emitted.size());
+        for (Diagnostic diagnostic : emitted) {
+            DiagnosticDefinition definition = definitions.get(diagnostic.getCode());
+            if (definition == null) {
+                throw technicalFailure(metadata, "returned undeclared diagnostic code " + diagnostic.getCode(), null);
+            }
+            if (!definition.getArgumentNames().containsAll(diagnostic.getArguments().keySet())) {
+                throw technicalFailure(metadata, "returned undeclared diagnostic arguments for " + diagnostic.getCode(), null);
+            }
+            accepted.add(render(diagnostic.withProvenance(metadata, path)));
+        }
+        return accepted;
     }
 
-    private static List<Annotation> legacyOrBranches(Annotation holder) {
-        return Arrays.stream(holder.annotationType().getDeclaredMethods())
-                .filter(method -> method.getReturnType().isAnnotation())
-                .sorted(Comparator.comparing(Method::getName))
-                .map(method -> legacyOrBranch(holder, method))
-                .collect(Collectors.toList());
+    private AnnotationIndex annotationIndex() {
+        ClassNode owner = deferred != null ? deferred.getOwner() : AstSupport.getClassNode(target);
+        return owner != null ? scope.getAnnotationIndex(owner) : null;
     }
 
-    private static Annotation legacyOrBranch(Annotation holder, Method method) {
-        try {
-            return (Annotation) method.invoke(holder);
-        } catch (ReflectiveOperationException exception) {
-            throw new IllegalStateException("Technical failure for OR composition: could not read legacy branch "
-                    + method.getName(), exception);
+    private boolean isInOrComposition() {
+        for (Annotation annotation : compositionPath) {
+            if (annotation instanceof OneCheckMustMatch) return true;
         }
+        return false;
     }
 
     private Annotation findOrCompositionHolder() {
@@ -276,57 +377,49 @@ public class ValidationHandler {
         return null;
     }
 
-    private static Map<String, DiagnosticDefinition> diagnosticDefinitions(Check check, BindingMetadata binding) {
-        Map<String, DiagnosticDefinition> definitions = new LinkedHashMap<>();
-        for (DiagnosticDefinition definition : check.getDiagnosticDefinitions()) {
-            if (definitions.put(definition.getCode(), definition) != null) {
-                throw technicalFailure(binding, "declared diagnostic code " + definition.getCode() + " more than once", null);
-            }
-        }
-        return definitions;
-    }
-
-    private static void validateTemplates(CheckContext context, Map<String, DiagnosticDefinition> definitions,
+    private static void validateTemplates(List<Annotation> path, CheckRegistry.Registration registration,
                                           BindingMetadata binding) {
-        for (Annotation annotation : context.getCompositionPath()) {
-            DiagnosticMessages messages = annotation.annotationType().getAnnotation(DiagnosticMessages.class);
-            if (messages == null) continue;
-            Set<String> codes = new java.util.HashSet<>();
-            for (DiagnosticMessage message : messages.value()) {
-                if (!codes.add(message.code())) {
-                    throw technicalFailure(binding, "declares diagnostic message code " + message.code() + " more than once", null);
+        List<Class<? extends Annotation>> overridingTypes = null;
+        for (Annotation annotation : path) {
+            if (DiagnosticTemplates.overridesOf(annotation.annotationType()).isEmpty()) continue;
+            if (overridingTypes == null) overridingTypes = new ArrayList<>();
+            overridingTypes.add(annotation.annotationType());
+        }
+        if (overridingTypes == null || registration.hasValidatedTemplates(overridingTypes)) return;
+        for (Class<? extends Annotation> type : overridingTypes) {
+            for (DiagnosticTemplates.Entry message : DiagnosticTemplates.overridesOf(type).getEntries()) {
+                if (message.isDuplicate()) {
+                    throw technicalFailure(binding, "declares diagnostic message code " + message.getCode() + " more than once", null);
                 }
-                DiagnosticDefinition definition = definitions.get(message.code());
+                DiagnosticDefinition definition = registration.getDefinitions().get(message.getCode());
                 if (definition == null) {
-                    throw technicalFailure(binding, "does not declare diagnostic message code " + message.code(), null);
+                    throw technicalFailure(binding, "does not declare diagnostic message code " + message.getCode(), null);
                 }
                 try {
-                    DiagnosticTemplates.validate(message.template(), definition.getArgumentNames());
+                    message.getTemplate().validate(definition.getArgumentNames());
                 } catch (IllegalArgumentException exception) {
-                    throw technicalFailure(binding, "has an invalid template for " + message.code(), exception);
+                    throw technicalFailure(binding, "has an invalid template for " + message.getCode(), exception);
                 }
             }
         }
+        registration.templatesValidated(overridingTypes);
     }
 
     private static Diagnostic render(Diagnostic diagnostic) {
-        DiagnosticMessage override = findNearestOverride(diagnostic);
+        DiagnosticTemplates.Entry override = findNearestOverride(diagnostic);
         if (override == null) return diagnostic;
         try {
-            return diagnostic.withMessage(DiagnosticTemplates.render(override.template(), diagnostic.getArguments()));
+            return diagnostic.withMessage(override.getTemplate().render(diagnostic.getArguments()));
         } catch (IllegalArgumentException exception) {
             throw technicalFailure(diagnostic.getBinding().orElseThrow(), "could not render template for " + diagnostic.getCode(), exception);
         }
     }
 
-    private static DiagnosticMessage findNearestOverride(Diagnostic diagnostic) {
+    private static DiagnosticTemplates.Entry findNearestOverride(Diagnostic diagnostic) {
         List<Annotation> path = diagnostic.getCompositionPath();
         for (int index = path.size() - 1; index >= 0; index--) {
-            DiagnosticMessages messages = path.get(index).annotationType().getAnnotation(DiagnosticMessages.class);
-            if (messages == null) continue;
-            for (DiagnosticMessage message : messages.value()) {
-                if (message.code().equals(diagnostic.getCode())) return message;
-            }
+            DiagnosticTemplates.Entry message = DiagnosticTemplates.overridesOf(path.get(index).annotationType()).get(diagnostic.getCode());
+            if (message != null) return message;
         }
         return null;
     }
@@ -337,7 +430,7 @@ public class ValidationHandler {
     }
 
     private Class<?> load(String name) {
-        try { return Class.forName(name, true, AstSupport.getTargetClassLoader(target)); }
+        try { return scope.getClasses().resolve(name, AstSupport.getTargetClassLoader(target)); }
         catch (ClassNotFoundException exception) { throw new IllegalStateException("Could not load check " + name, exception); }
     }
 
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.expr.Expression;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+/**
+ * The validated annotation types published by annotation libraries on the compile classpath.
+ *
+ * <p>A library may ship a {@value #LOCATION} resource listing each of its validated annotation types, one per line,
+ * optionally followed by whitespace and the {@link #fingerprintOf fingerprint} of its meta-annotations. Empty lines and
+ * lines starting with {@code #} are ignored. A listed type is validated without walking its meta-annotations, and a
+ * type whose class file lives in the same classpath root as an index but is not listed is known to be not validated.
+ * Types of roots without an index are classified as before. A listed type whose meta-annotations no longer match the
+ * published fingerprint, for example because it was recompiled without its binding, is stale and classified as if it
+ * were not listed.</p>
+ *
+ * <p>The indexes visible to a class loader are read once and cached weakly per loader. An index only holds names, so
+ * it never keeps classes or their loader alive.</p>
+ */
+final class ValidationIndex {
+
+    static final String LOCATION = "META-INF/klum-cast/validated-annotations.idx";
+
+    static final ValidationIndex EMPTY = new ValidationIndex(Collections.emptySet(), Collections.emptyMap());
+
+    private static final ClassNode RETENTION = ClassHelper.make(Retention.class);
+
+    private static final Map<ClassLoader, ValidationIndex> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Set<String> roots;
+    private final Map<String, String> fingerprints;
+
+    private ValidationIndex(Set<String> roots, Map<String, String> fingerprints) {
+        this.roots = roots;
+        this.fingerprints = fingerprints;
+    }
+
+    /** @return the merged indexes visible to the class loader */
+    static ValidationIndex of(ClassLoader loader) {
+        if (loader == null) return EMPTY;
+        return INDEXES.computeIfAbsent(loader, ValidationIndex::read);
+    }
+
+    /**
+     * Classifies an annotation type from the index.
+     *
+     * @param annotationType the annotation type, resolved from a class file
+     * @param loader the class loader the type is resolved from
+     * @return {@code true} if the type is listed with a matching or without a fingerprint, {@code false} if its root
+     *         publishes an index that does not list it, {@code null} if the index has no answer or a stale entry
+     */
+    Boolean isValidated(ClassNode annotationType, ClassLoader loader) {
+        if (roots.isEmpty()) return null;
+        String className = annotationType.getName();
+        String fingerprint = fingerprints.get(className);
+        if (fingerprint != null) {
+            return fingerprint.isEmpty() || fingerprint.equals(fingerprintOf(annotationType)) ? Boolean.TRUE : null;
+        }
+        String path = className.replace('.', '/') + ".class";
+        URL classFile = loader.getResource(path);
+        if (classFile == null) return null;
+        return roots.contains(rootOf(classFile, path)) ? Boolean.FALSE : null;
+    }
+
+    /**
+     * Computes the fingerprint published for an annotation type: the first 16 bytes of the SHA-256 digest of the sorted
+     * binary names of its annotations with runtime retention, each followed by a line feed, in lower case hex. Whether a
+     * type is validated only depends on which annotations it carries, not on their values.
+     *
+     * @param annotationType the annotation type
+     * @return the hex encoded fingerprint
+     */
+    static String fingerprintOf(ClassNode annotationType) {
+        Set<String> names = new TreeSet<>();
+        for (AnnotationNode annotation : annotationType.getAnnotations()) {
+            if (hasRuntimeRetention(annotation.getClassNode())) names.add(annotation.getClassNode().getName());
+        }
+        MessageDigest digest = PlanVersion.newDigest();
+        for (String name : names) digest.update((name + '\n').getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static boolean hasRuntimeRetention(ClassNode annotationType) {
+        for (AnnotationNode retention : annotationType.getAnnotations(RETENTION)) {
+            Expression policy = retention.getMember("value");
+            if (policy != null && policy.getText().endsWith(RetentionPolicy.RUNTIME.name())) return true;
+        }
+        return false;
+    }
+
+    /** @return whether no index is visible */
+    boolean isEmpty() {
+        return roots.isEmpty();
+    }
+
+    private static ValidationIndex read(ClassLoader loader) {
+        Set<String> roots = new HashSet<>();
+        Map<String, String> fingerprints = new HashMap<>();
+        try {
+            Enumeration<URL> indexes = loader.getResources(LOCATION);
+            while (indexes.hasMoreElements()) {
+                URL index = indexes.nextElement();
+                Map<String, String> entries = new HashMap<>();
+                try {
+                    readEntries(index, entries);
+                } catch (IOException unreadable) {
+                    continue; // a root whose index cannot be read is classified without it
+                }
+                roots.add(rootOf(index, LOCATION));
+                fingerprints.putAll(entries);
+            }
+        } catch (IOException unreadable) {
+            return EMPTY;
+        }
+        if (roots.isEmpty()) return EMPTY;
+        return new ValidationIndex(Collections.unmodifiableSet(roots), Collections.unmodifiableMap(fingerprints));
+    }
+
+    private static void readEntries(URL index, Map<String, String> entries) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\s+", 2);
+                entries.put(parts[0], parts.length > 1 ? parts[1] : "");
+            }
+        }
+    }
+
+    private static String rootOf(URL resource, String path) {
+        String location = resource.toString();
+        return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : location;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.spi.ApplicabilityFilter;
+import com.blackbuild.klum.cast.spi.CheckContext;
+import com.blackbuild.klum.cast.spi.Diagnostic;
+import com.blackbuild.klum.cast.spi.ValidationListener;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+
+/**
+ * The {@link ValidationListener}s registered with the compiler.
+ *
+ * <p>Listeners are discovered when this class is initialized. Every notification site is guarded by {@link #ACTIVE};
+ * as a constant, it lets the JIT remove the notifications entirely when no listener is registered. Exceptions thrown by
+ * a listener are reported as a {@link ListenerFailure}, never as a failure of the check being observed.</p>
+ */
+final class ValidationListeners {
+
+    private static final ValidationListener[] LISTENERS = ServiceLoader.load(ValidationListener.class,
+            ValidationListeners.class.getClassLoader()).stream().map(ServiceLoader.Provider::get).toArray(ValidationListener[]::new);
+
+    static final boolean ACTIVE = LISTENERS.length > 0;
+
+    private ValidationListeners() {}
+
+    static void useStarted(AnnotationNode annotation, AnnotatedNode target) {
+        notifyListeners("useStarted", listener -> listener.useStarted(annotation, target));
+    }
+
+    static void useFinished(AnnotationNode annotation, AnnotatedNode target, List<Diagnostic> diagnostics) {
+        List<Diagnostic> copy = List.copyOf(diagnostics);
+        notifyListeners("useFinished", listener -> listener.useFinished(annotation, target, copy));
+    }
+
+    static void filterDecided(ApplicabilityFilter filter, CheckContext context, boolean applies) {
+        notifyListeners("filterDecided", listener -> listener.filterDecided(filter, context, applies));
+    }
+
+    static void checkStarted(CheckContext context) {
+        notifyListeners("checkStarted", listener -> listener.checkStarted(context));
+    }
+
+    static void checkFinished(CheckContext context, List<Diagnostic> diagnostics) {
+        List<Diagnostic> copy = List.copyOf(diagnostics);
+        notifyListeners("checkFinished", listener -> listener.checkFinished(context, copy));
+    }
+
+    static void orBranchEvaluated(AnnotationNode annotation, AnnotatedNode target, Annotation branch,
+                                  ValidationListener.Outcome outcome) {
+        notifyListeners("orBranchEvaluated", listener -> listener.orBranchEvaluated(annotation, target, branch, outcome));
+    }
+
+    static void diagnosticEmitted(Diagnostic diagnostic) {
+        notifyListeners("diagnosticEmitted", listener -> listener.diagnosticEmitted(diagnostic));
+    }
+
+    private static void notifyListeners(String callback, Consumer<ValidationListener> notification) {
+        for (ValidationListener listener : LISTENERS) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException exception) {
+                throw new ListenerFailure(listener, callback, exception);
+            }
+        }
+    }
+
+    /** A listener that threw. Checks invoking listeners pass it on instead of reporting it as their own failure. */
+    static final class ListenerFailure extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private ListenerFailure(ValidationListener listener, String callback, RuntimeException cause) {
+            super("Technical failure for validation listener " + listener.getClass().getName() + ": threw in " + callback,
+                    cause);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Opt-in execution options of the validation.
+ *
+ * <p>Each option is enabled either through the optimization options of the {@link CompilerConfiguration}, for example
+ * {@code groovyOptions.optimizationOptions['klumcast.parallel'] = true} in Gradle, or through the system property of
+ * the same name.</p>
+ *
+ * <p>Incremental validation ({@code klumcast.incremental}) keeps its state in the file named by the system property
+ * {@code klumcast.incremental.file}, by default in {@code <target directory>-klum-cast.state} next to the target
+ * directory of the compilation. Without a target directory, incremental validation is disabled. Whenever incremental
+ * validation or a result store is used, the class file digests that version validation plans are kept in
+ * {@code <target directory>-klum-cast.digests}, see {@link ClassDigests}.</p>
+ *
+ * <p>The system property {@code klumcast.store} names a shared {@link com.blackbuild.klum.cast.spi.ResultStore}, either
+ * as a URI or as a directory path.</p>
+ *
+ * <p>With {@code klumcast.profile}, a {@link ValidationProfile} is written into the directory named by the system
+ * property {@code klumcast.profile.dir}, by default {@code <target directory>-klum-cast.profile} next to the target
+ * directory. Without either, profiling is disabled.</p>
+ */
+final class ValidationOptions {
+
+    static final String PARALLEL = "klumcast.parallel";
+    static final String PARALLELISM = "klumcast.parallelism";
+    static final String BATCH = "klumcast.batch";
+    static final String INCREMENTAL = "klumcast.incremental";
+    static final String INCREMENTAL_FILE = "klumcast.incremental.file";
+    static final String STORE = "klumcast.store";
+    static final String PROFILE = "klumcast.profile";
+    static final String PROFILE_DIR = "klumcast.profile.dir";
+
+    private final boolean parallel;
+    private final int parallelism;
+    private final boolean batch;
+    private final Path stateFile;
+    private final String store;
+    private final Path digestFile;
+    private final Path profileDirectory;
+
+    private ValidationOptions(boolean parallel, int parallelism, boolean batch, Path stateFile, String store,
+                              Path digestFile, Path profileDirectory) {
+        this.parallel = parallel;
+        this.parallelism = parallelism;
+        this.batch = batch;
+        this.stateFile = stateFile;
+        this.store = store;
+        this.digestFile = digestFile;
+        this.profileDirectory = profileDirectory;
+    }
+
+    static ValidationOptions of(CompilerConfiguration configuration) {
+        Map<String, Boolean> optimizations = configuration != null ? configuration.getOptimizationOptions() : Map.of();
+        int parallelism = Integer.getInteger(PARALLELISM, Runtime.getRuntime().availableProcessors());
+        Path stateFile = isEnabled(optimizations, INCREMENTAL) ? stateFile(configuration) : null;
+        String store = System.getProperty(STORE);
+        Path digestFile = stateFile != null || store != null ? besideTarget(configuration, "digests") : null;
+        Path profileDirectory = isEnabled(optimizations, PROFILE) ? profileDirectory(configuration) : null;
+        return new ValidationOptions(isEnabled(optimizations, PARALLEL), Math.max(1, parallelism),
+                isEnabled(optimizations, BATCH), stateFile, store, digestFile, profileDirectory);
+    }
+
+    /** @return whether the source units of a compilation unit are validated concurrently */
+    boolean isParallel() { return parallel; }
+
+    /** @return the number of worker threads of parallel validation, {@code klumcast.parallelism} or the processor count */
+    int getParallelism() { return parallelism; }
+
+    /** @return whether all uses of a compilation unit are validated grouped by annotation type */
+    boolean isBatch() { return batch; }
+
+    /** @return the state file of incremental validation, or {@code null} if incremental validation is disabled */
+    Path getStateFile() { return stateFile; }
+
+    /** @return the location of the shared result store, or {@code null} if none is configured */
+    String getStore() { return store; }
+
+    /** @return the file persisting class file digests, or {@code null} if no persisted validation result is used */
+    Path getDigestFile() { return digestFile; }
+
+    /** @return the directory receiving the validation profile, or {@code null} if profiling is disabled */
+    Path getProfileDirectory() { return profileDirectory; }
+
+    private static Path stateFile(CompilerConfiguration configuration) {
+        String configured = System.getProperty(INCREMENTAL_FILE);
+        return configured != null ? Path.of(configured) : besideTarget(configuration, "state");
+    }
+
+    private static Path profileDirectory(CompilerConfiguration configuration) {
+        String configured = System.getProperty(PROFILE_DIR);
+        return configured != null ? Path.of(configured) : besideTarget(configuration, "profile");
+    }
+
+    private static Path besideTarget(CompilerConfiguration configuration, String extension) {
+        File target = configuration != null ? configuration.getTargetDirectory() : null;
+        if (target == null) return null;
+        return new File(target.getAbsoluteFile().getParentFile(), target.getName() + "-klum-cast." + extension).toPath();
+    }
+
+    private static boolean isEnabled(Map<String, Boolean> optimizations, String option) {
+        return Boolean.TRUE.equals(optimizations.get(option)) || Boolean.getBoolean(option);
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import com.blackbuild.klum.cast.KlumCastValidated;
+import com.blackbuild.klum.cast.KlumCastValidator;
+import com.blackbuild.klum.cast.checks.OneCheckMustMatch;
+import com.blackbuild.klum.cast.spi.BindingMetadata;
+import com.blackbuild.klum.cast.spi.Check;
+import com.blackbuild.klum.cast.spi.CheckBinding;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Precompiled validation structure of one annotation type.
+ *
+ * <p>A plan flattens repeatable containers, classifies every validation annotation on the type and its members, and
+ * records OR branches and typed check and filter bindings. Everything that does not depend on the use is resolved
+ * once per plan: {@code @Filter} member values, the binding metadata of each check and the plans of nested validated
+ * annotations, so validating a use only evaluates filters and runs checks.</p>
+ *
+ * <p>Plans only reference the annotation type and annotations reachable from it, so they are cached per
+ * {@link Class} through a {@link ClassValue}: every compilation that sees the same class shares the plan, and the plan
+ * becomes unreachable together with the class loader of the type. Name-bound classes are resolved through the
+ * target's class loader and are only retained if the annotation type's class loader can see them anyway.</p>
+ */
+final class ValidationPlan {
+
+    private static final ClassValue<Boolean> VALIDATED = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotation() && hasValidationBinding(type.asSubclass(Annotation.class), new HashSet<>());
+        }
+    };
+
+    private static final ClassValue<ValidationPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ValidationPlan computeValue(Class<?> type) {
+            return new ValidationPlan(type.asSubclass(Annotation.class));
+        }
+    };
+
+    enum Kind { OR_COMPOSITION, LEGACY_BINDING, TYPED_BINDING, VALIDATED, NONE }
+
+    private final Class<? extends Annotation> type;
+    private final List<Step> steps;
+    private final List<MemberPlan> members;
+    private final List<Step> orBranches;
+    private final List<Method> legacyOrBranchMembers;
+    private volatile Optional<String> version;
+
+    private ValidationPlan(Class<? extends Annotation> type) {
+        this.type = type;
+        this.steps = compileSteps(type);
+        this.members = Arrays.stream(type.getDeclaredMethods())
+                .sorted(Comparator.comparing(Method::getName))
+                .map(method -> new MemberPlan(method.getName(), compileSteps(method)))
+                .filter(member -> !member.getSteps().isEmpty())
+                .collect(Collectors.toUnmodifiableList());
+        this.orBranches = Arrays.stream(type.getDeclaredAnnotations())
+                .filter(ValidationPlan::isOrBranch)
+                .sorted(Comparator.comparing(annotation -> annotation.annotationType().getName()))
+                .map(Step::of)
+                .collect(Collectors.toUnmodifiableList());
+        this.legacyOrBranchMembers = Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> method.getReturnType().isAnnotation())
+                .sorted(Comparator.comparing(Method::getName))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    static ValidationPlan of(Class<? extends Annotation> type) {
+        return PLANS.get(type);
+    }
+
+    static boolean isValidated(Class<? extends Annotation> annotationType) {
+        return VALIDATED.get(annotationType);
+    }
+
+    static boolean isValidated(Annotation annotation) {
+        return isValidated(annotation.annotationType());
+    }
+
+    Class<? extends Annotation> getType() { return type; }
+
+    /**
+     * @param classDigests the digests of class files already read, only used when the version is first computed
+     * @return the digest of the class files this plan depends on, or {@code null} if it cannot be versioned
+     */
+    String getVersion(ClassDigests classDigests) {
+        Optional<String> result = version;
+        if (result == null) version = result = Optional.ofNullable(PlanVersion.of(type, classDigests));
+        return result.orElse(null);
+    }
+
+    /** @return the annotation-level steps in declaration order, without OR branches */
+    List<Step> getSteps() { return steps; }
+
+    /** @return members carrying at least one step, ordered by member name */
+    List<MemberPlan> getMembers() { return members; }
+
+    /**
+     * Returns the OR branches of an instance of this plan's type. Direct branch annotations are precompiled; the
+     * deprecated annotation-valued members are read from the given holder.
+     */
+    List<Step> getOrBranches(Annotation holder) {
+        if (!orBranches.isEmpty()) return orBranches;
+        List<Step> branches = new ArrayList<>(legacyOrBranchMembers.size());
+        for (Method method : legacyOrBranchMembers) branches.add(Step.of(legacyOrBranch(holder, method)));
+        return branches;
+    }
+
+    private static List<Step> compileSteps(AnnotatedElement element) {
+        List<Annotation> annotations = RepeatableAnnotationsSupport.getAllAnnotations(element).collect(Collectors.toList());
+        boolean hasOrComposition = annotations.stream().anyMatch(OneCheckMustMatch.class::isInstance);
+        List<Step> result = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            if (hasOrComposition && isOrBranch(annotation)) continue;
+            Step step = Step.of(annotation);
+            // unrelated annotations only matter when they declare filters, whose evaluation is observable
+            if (step.getKind() != Kind.NONE || step.hasFilters()) result.add(step);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static boolean isOrBranch(Annotation annotation) {
+        return !(annotation instanceof OneCheckMustMatch) && isValidated(annotation);
+    }
+
+    private static Annotation legacyOrBranch(Annotation holder, Method method) {
+        try {
+            return (Annotation) method.invoke(holder);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Technical failure for OR composition: could not read legacy branch "
+                    + method.getName(), exception);
+        }
+    }
+
+    private static boolean hasValidationBinding(Class<? extends Annotation> annotationType,
+                                                Set<Class<? extends Annotation>> visited) {
+        if (!visited.add(annotationType)) return false;
+        if (annotationType.isAnnotationPresent(KlumCastValidated.class)
+                || annotationType.isAnnotationPresent(KlumCastValidator.class)
+                || annotationType.isAnnotationPresent(CheckBinding.class)) return true;
+        for (Annotation annotation : annotationType.getDeclaredAnnotations()) {
+            if (hasValidationBinding(annotation.annotationType(), visited)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isAncestor(ClassLoader candidate, ClassLoader loader) {
+        if (candidate == null) return true;
+        for (ClassLoader current = loader; current != null; current = current.getParent()) {
+            if (current == candidate) return true;
+        }
+        return false;
+    }
+
+    /** The validation steps for one annotation member. */
+    static final class MemberPlan {
+        private final String name;
+        private final List<Step> steps;
+
+        private MemberPlan(String name, List<Step> steps) {
+            this.name = name;
+            this.steps = steps;
+        }
+
+        String getName() { return name; }
+        List<Step> getSteps() { return steps; }
+    }
+
+    /** One classified annotation of a composition together with its statically bound types. */
+    static final class Step {
+        private static final Class<?>[] NO_FILTER_TYPES = new Class<?>[0];
+
+        private final Annotation annotation;
+        private final Kind kind;
+        private final FilterHandler.BoundFilter[] filters;
+        private final Class<?> checkType;
+        private final String checkName;
+        private final Class<?>[] filterTypes;
+        private final boolean ambiguousBinding;
+        private volatile BindingMetadata binding;
+        private volatile ValidationPlan validatedPlan;
+
+        private Step(Annotation annotation, Kind kind, Class<?> checkType, String checkName, Class<?>[] filterTypes,
+                     boolean ambiguousBinding) {
+            this.annotation = annotation;
+            this.kind = kind;
+            this.filters = FilterHandler.bind(annotation);
+            this.checkType = checkType;
+            this.checkName = checkName;
+            this.filterTypes = filterTypes;
+            this.ambiguousBinding = ambiguousBinding;
+        }
+
+        static Step of(Annotation annotation) {
+            if (annotation instanceof OneCheckMustMatch) {
+                return new Step(annotation, Kind.OR_COMPOSITION, null, null, NO_FILTER_TYPES, false);
+            } else if (annotation instanceof KlumCastValidator) {
+                KlumCastValidator binding = (KlumCastValidator) annotation;
+                boolean hasName = !binding.value().isEmpty();
+                boolean hasType = !binding.type().equals(KlumCastValidator.None.class);
+                return new Step(annotation, Kind.LEGACY_BINDING, hasType ? binding.type() : null,
+                        hasName ? binding.value() : binding.type().getName(), NO_FILTER_TYPES, hasName == hasType);
+            } else if (annotation instanceof CheckBinding) {
+                CheckBinding binding = (CheckBinding) annotation;
+                return new Step(annotation, Kind.TYPED_BINDING, binding.value(), binding.value().getName(),
+                        binding.filters(), false);
+            } else if (isValidated(annotation)) {
+                return new Step(annotation, Kind.VALIDATED, null, null, NO_FILTER_TYPES, false);
+            }
+            return new Step(annotation, Kind.NONE, null, null, NO_FILTER_TYPES, false);
+        }
+
+        Annotation getAnnotation() { return annotation; }
+        Kind getKind() { return kind; }
+
+        /** @return the {@code @Filter} member values that restrict this step, empty if it always applies */
+        FilterHandler.BoundFilter[] getFilters() { return filters; }
+
+        /** @return whether the step declares {@code @Filter} members that must be evaluated per use */
+        boolean hasFilters() { return filters.length > 0; }
+
+        /** @return the statically bound check type, or {@code null} for name-bound checks */
+        Class<?> getCheckType() { return checkType; }
+
+        /** @return the implementation name reported for the bound check */
+        String getCheckName() { return checkName; }
+
+        /** @return the typed filters bound together with the check */
+        Class<?>[] getFilterTypes() { return filterTypes; }
+
+        /** @return whether a legacy binding selects neither or both of name and type */
+        boolean isAmbiguousBinding() { return ambiguousBinding; }
+
+        /**
+         * Returns the binding metadata for the check resolved for this step. Name-bound checks may resolve to a
+         * different class per target class loader, so the metadata is only kept for the last resolved type, and only
+         * if that type is visible to the annotation type and thus cannot pin a shorter-lived class loader.
+         */
+        BindingMetadata getBinding(Class<? extends Check> resolvedType) {
+            BindingMetadata result = binding;
+            if (result != null && result.getCheckType() == resolvedType) return result;
+            result = new BindingMetadata(annotation, resolvedType, checkName);
+            if (isAncestor(resolvedType.getClassLoader(), annotation.annotationType().getClassLoader())) binding = result;
+            return result;
+        }
+
+        /**
+         * Returns the plan of a {@link Kind#VALIDATED} step. It is linked on first use, not when the step is built,
+         * because meta-annotations may form cycles.
+         */
+        ValidationPlan getValidatedPlan() {
+            ValidationPlan result = validatedPlan;
+            if (result == null) validatedPlan = result = ValidationPlan.of(annotation.annotationType());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated wall time, invocation and diagnostic counts of one compilation, enabled by {@code klumcast.profile}.
+ *
+ * <p>Uses are aggregated per validated annotation type, check invocations per check implementation, filter
+ * evaluations per filter implementation, and transformations per source unit. Times are inclusive: the time of a use
+ * contains the time of its checks and filters. Batch checks are recorded once per class, reused deterministic outcomes
+ * and deferred batch invocations are not recorded as check invocations. The counters of the compilation scope, such
+ * as the number of skipped source units, are passed in when the reports are written.</p>
+ *
+ * <p>While disabled, {@link #start()} does not read the clock and every record method returns immediately. The
+ * profile is thread-safe.</p>
+ */
+final class ValidationProfile {
+
+    static final String JSON_FILE = "klum-cast-profile.json";
+    static final String HTML_FILE = "klum-cast-profile.html";
+
+    private volatile boolean enabled;
+    private final Map<String, Entry> annotationTypes = new ConcurrentHashMap<>();
+    private final Map<String, Entry> checks = new ConcurrentHashMap<>();
+    private final Map<String, Entry> filters = new ConcurrentHashMap<>();
+    private final Map<String, Entry> sourceUnits = new ConcurrentHashMap<>();
+
+    void enable() { enabled = true; }
+
+    boolean isEnabled() { return enabled; }
+
+    /** @return the start time of a measurement, {@code 0} if the profile is disabled */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void useValidated(String annotationType, long start, int diagnostics) {
+        if (enabled) record(annotationTypes, annotationType, start, diagnostics);
+    }
+
+    void checkInvoked(String implementation, long start, int diagnostics) {
+        if (enabled) record(checks, implementation, start, diagnostics);
+    }
+
+    void filterEvaluated(String implementation, long start, boolean applies) {
+        if (enabled) record(filters, implementation, start, applies ? 0 : 1);
+    }
+
+    void sourceUnitTransformed(String name, long start, int errors) {
+        if (enabled) record(sourceUnits, name, start, errors);
+    }
+
+    private static void record(Map<String, Entry> entries, String key, long start, int count) {
+        long elapsed = System.nanoTime() - start;
+        Entry entry = entries.computeIfAbsent(key, Entry::new);
+        entry.invocations.increment();
+        entry.nanos.add(elapsed);
+        entry.count.add(count);
+    }
+
+    /**
+     * Writes {@value #JSON_FILE} and {@value #HTML_FILE} into the given directory, replacing earlier reports. Entries
+     * are ordered by descending time. A report that cannot be written does not fail the compilation.
+     *
+     * @param directory the report directory, created if missing
+     * @param counters the counters of the compilation by name, reported in iteration order
+     */
+    void writeTo(Path directory, Map<String, ? extends Number> counters) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(JSON_FILE), toJson(counters), StandardCharsets.UTF_8);
+            Files.writeString(directory.resolve(HTML_FILE), toHtml(counters), StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            // the profile is diagnostic output only
+        }
+    }
+
+    String toJson(Map<String, ? extends Number> counters) {
+        StringBuilder json = new StringBuilder("{\n");
+        appendJson(json, "annotationTypes", "type", "uses", "diagnostics", annotationTypes);
+        json.append(",\n");
+        appendJson(json, "checks", "implementation", "invocations", "diagnostics", checks);
+        json.append(",\n");
+        appendJson(json, "filters", "implementation", "evaluations", "rejections", filters);
+        json.append(",\n");
+        appendJson(json, "sourceUnits", "name", "transformations", "errors", sourceUnits);
+        json.append(",\n  \"counters\": {");
+        String separator = "\n";
+        for (Map.Entry<String, ? extends Number> counter : counters.entrySet()) {
+            json.append(separator).append("    ");
+            appendJsonString(json, counter.getKey());
+            json.append(": ").append(counter.getValue());
+            separator = ",\n";
+        }
+        json.append(counters.isEmpty() ? "}" : "\n  }");
+        return json.append("\n}\n").toString();
+    }
+
+    String toHtml(Map<String, ? extends Number> counters) {
+        StringBuilder html = new StringBuilder()
+                .append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>KlumCast validation profile</title>\n")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:2px 8px}td.n{text-align:right}</style>\n")
+                .append("</head>\n<body>\n<h1>KlumCast validation profile</h1>\n")
+                .append("<p>Times are inclusive wall times in milliseconds, sorted by descending time.</p>\n");
+        appendHtml(html, "Validated annotation types", "Type", "Uses", "Diagnostics", annotationTypes);
+        appendHtml(html, "Checks", "Implementation", "Invocations", "Diagnostics", checks);
+        appendHtml(html, "Filters", "Implementation", "Evaluations", "Rejections", filters);
+        appendHtml(html, "Source units", "Name", "Transformations", "Errors", sourceUnits);
+        html.append("<h2>Counters</h2>\n<table>\n<tr><th>Name</th><th>Value</th></tr>\n");
+        counters.forEach((name, value) -> html.append("<tr><td>").append(escapeHtml(name))
+                .append("</td><td class=\"n\">").append(value).append("</td></tr>\n"));
+        html.append("</table>\n");
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    private static void appendJson(StringBuilder json, String section, String keyName, String invocationsName,
+                                   String countName, Map<String, Entry> entries) {
+        json.append("  \"").append(section).append("\": [");
+        String separator = "\n";
+        for (Entry entry : sorted(entries)) {
+            json.append(separator).append("    {\"").append(keyName).append("\": ");
+            appendJsonString(json, entry.key);
+            json.append(", \"").append(invocationsName).append("\": ").append(entry.invocations.sum())
+                    .append(", \"timeNanos\": ").append(entry.nanos.sum())
+                    .append(", \"").append(countName).append("\": ").append(entry.count.sum()).append('}');
+            separator = ",\n";
+        }
+        json.append(entries.isEmpty() ? "]" : "\n  ]");
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character == '"' || character == '\\') json.append('\\').append(character);
+            else if (character < 0x20) json.append(String.format(Locale.ROOT, "\\u%04x", (int) character));
+            else json.append(character);
+        }
+        json.append('"');
+    }
+
+    private static void appendHtml(StringBuilder html, String title, String keyName, String invocationsName,
+                                   String countName, Map<String, Entry> entries) {
+        html.append("<h2>").append(title).append("</h2>\n<table>\n<tr><th>").append(keyName).append("</th><th>")
+                .append(invocationsName).append("</th><th>Time (ms)</th><th>").append(countName).append("</th></tr>\n");
+        for (Entry entry : sorted(entries)) {
+            html.append("<tr><td>").append(escapeHtml(entry.key))
+                    .append("</td><td class=\"n\">").append(entry.invocations.sum())
+                    .append("</td><td class=\"n\">").append(String.format(Locale.ROOT, "%.3f", entry.nanos.sum() / 1e6))
+                    .append("</td><td class=\"n\">").append(entry.count.sum()).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private static String escapeHtml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static List<Entry> sorted(Map<String, Entry> entries) {
+        List<Entry> result = new ArrayList<>(entries.values());
+        result.sort(Comparator.comparingLong((Entry entry) -> entry.nanos.sum()).reversed()
+                .thenComparing(entry -> entry.key));
+        return result;
+    }
+
+    /** The aggregate of one annotation type, check, filter, or source unit. */
+    private static final class Entry {
+        private final String key;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Entry(String key) {
+            this.key = key;
+        }
+    }
+}
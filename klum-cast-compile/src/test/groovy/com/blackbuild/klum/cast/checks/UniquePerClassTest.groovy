@@ -101,6 +101,33 @@ class MyClass {
         thrown(MultipleCompilationErrorsException)
     }
 
+    def "distinct annotations are counted separately"() {
+        given:
+        createClass '''
+import com.blackbuild.klum.cast.*
+import com.blackbuild.klum.cast.checks.*
+import java.lang.annotation.*
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target([ElementType.FIELD, ElementType.METHOD, ElementType.TYPE])
+@KlumCastValidated
+@UniquePerClass
+@interface AlsoUnique {}
+'''
+
+        when:
+        createClass '''
+class MyClass {
+    @ShouldBeUnique
+    int myField
+    @AlsoUnique
+    int myField2
+}'''
+
+        then:
+        notThrown(MultipleCompilationErrorsException)
+    }
+
     def "fails on class and field"() {
         when:
         createClass '''
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import com.blackbuild.klum.cast.spi.AnnotationIndex
+import org.codehaus.groovy.ast.ClassNode
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.Phases
+
+class AnnotationIndexTest extends AstSpec {
+
+    def "indexes the class, its members and parameters in visiting order"() {
+        given:
+        def owner = parse '''
+@Deprecated
+class Indexed {
+    @Deprecated int field
+    @SuppressWarnings('x') Indexed() {}
+    @Deprecated @SuppressWarnings('y') def method(@Deprecated String parameter) {}
+    def plain() {}
+}
+'''
+
+        when:
+        def index = AnnotationIndex.of(owner)
+
+        then:
+        index.owner.is(owner)
+        index.isClassAnnotatedWith('java.lang.Deprecated')
+        !index.isClassAnnotatedWith('java.lang.SuppressWarnings')
+        index.getAnnotatedNodes('java.lang.Deprecated')*.class*.simpleName == ['ClassNode', 'FieldNode', 'MethodNode', 'Parameter']
+        index.getAnnotatedNodes('java.lang.SuppressWarnings')*.class*.simpleName == ['ConstructorNode', 'MethodNode']
+        index.getAnnotatedNodes('java.lang.Override').empty
+        index.getAnnotationNames(owner.getMethods('method')[0]) as List == ['java.lang.Deprecated', 'java.lang.SuppressWarnings']
+        index.getAnnotationNames(owner.getMethods('plain')[0]).empty
+    }
+
+    def "the compilation scope builds one index per class"() {
+        given:
+        def owner = parse '''
+class Shared {}
+'''
+        def scope = new CompilationScope()
+
+        expect:
+        scope.getAnnotationIndex(owner).is(scope.getAnnotationIndex(owner))
+        !scope.getAnnotationIndex(owner).is(new CompilationScope().getAnnotationIndex(owner))
+    }
+
+    def "parameters validated through the public entry point see the index of their class"() {
+        given:
+        createAnnotation '''
+@Target([ElementType.PARAMETER])
+@UniquePerClass
+@interface OnePerClass {}
+'''
+        compilerConfiguration.disabledGlobalASTTransformations = [KlumCastTransformation.name] as Set
+        def method = parse('''
+class Indexed {
+    def method(@OnePerClass String first, @OnePerClass String second) {}
+}
+''').getMethods('method')[0]
+        def second = method.parameters[1]
+
+        when:
+        def diagnostics = ValidationHandler.validateAnnotation(second.annotations[0], second, method)
+
+        then:
+        diagnostics*.message == ['Annotation OnePerClass is used multiple times in class Indexed']
+    }
+
+    ClassNode parse(String code) {
+        def unit = new CompilationUnit(compilerConfiguration, null, loader)
+        unit.addSource('Indexed.groovy', code)
+        unit.compile(Phases.SEMANTIC_ANALYSIS)
+        unit.AST.classes.first()
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.codehaus.groovy.control.Phases
+
+class BatchCheckTest extends AstSpec {
+
+    def setup() {
+        createClass '''
+package fixture
+
+import com.blackbuild.klum.cast.spi.*
+import java.lang.annotation.*
+
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(AtMostTwo.Counter)
+@interface AtMostTwo {
+    static class Counter implements BatchCheck {
+        Map<CheckContext, List<Diagnostic>> checkAll(List<CheckContext> contexts) {
+            def holder = com.blackbuild.klum.cast.validation.AstSpec.currentTest.valueHolder
+            holder.batchSizes = (holder.batchSizes ?: []) + contexts.size()
+            if (contexts.size() <= 2) return [:]
+            def last = contexts.last()
+            [(last): [new Diagnostic(Counter.name, "Used ${contexts.size()} times".toString(), last.validatedAnnotation)]]
+        }
+    }
+}
+'''
+    }
+
+    def "batch checks receive all contexts of a class in one call"() {
+        when:
+        createClass '''
+import fixture.AtMostTwo
+
+class First {
+    @AtMostTwo int a
+    @AtMostTwo int b
+    @AtMostTwo def method(@AtMostTwo String parameter) {}
+}
+class Second {
+    @AtMostTwo int a
+}
+'''
+
+        then:
+        def exception = thrown(MultipleCompilationErrorsException)
+        exception.errorCollector.errorCount == 1
+        exception.message.contains('Used 4 times')
+        valueHolder.batchSizes == [4, 1]
+    }
+
+    def "batch checks in OR branches are executed per use"() {
+        given:
+        createClass '''
+import fixture.AtMostTwo
+import com.blackbuild.klum.cast.checks.*
+import java.lang.annotation.*
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@OneCheckMustMatch
+@AtMostTwo
+@MustBeStatic
+@interface Either {}
+
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@Either
+@interface EitherValidated {}
+'''
+
+        when:
+        createClass '''
+class Host {
+    @EitherValidated int a
+    @EitherValidated int b
+    @EitherValidated int c
+}
+'''
+
+        then:
+        notThrown(MultipleCompilationErrorsException)
+        valueHolder.batchSizes == [1, 1, 1]
+    }
+
+    def "batch diagnostics keep their order in parallel and batch validation"() {
+        when:
+        def serial = compileUnit([:])
+
+        then:
+        serial.size() == 3
+        compileUnit((ValidationOptions.PARALLEL): true) == serial
+        compileUnit((ValidationOptions.BATCH): true) == serial
+    }
+
+    List<String> compileUnit(Map<String, Boolean> options) {
+        compilerConfiguration.optimizationOptions.clear()
+        compilerConfiguration.optimizationOptions.putAll(options)
+        def unit = new CompilationUnit(compilerConfiguration, null, new GroovyClassLoader(loader, compilerConfiguration))
+        (1..3).each { index ->
+            unit.addSource("Source${index}.groovy", """
+import fixture.AtMostTwo
+
+class Source$index {
+    @AtMostTwo def first() {}
+    @AtMostTwo def second() {}
+    @AtMostTwo static third() {}
+}
+""")
+        }
+        try {
+            unit.compile(Phases.SEMANTIC_ANALYSIS)
+            return []
+        } catch (MultipleCompilationErrorsException exception) {
+            return exception.errorCollector.errors*.cause*.message
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.ast.ClassHelper
+import org.codehaus.groovy.ast.ClassNode
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.codehaus.groovy.control.Phases
+
+class BatchValidationTest extends AstSpec {
+
+    def setup() {
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+        createAnnotation '''
+@NumberOfParameters(1)
+@interface OneParameter {}
+'''
+    }
+
+    def "batch validation reports the same diagnostics in the same order as per-source-unit validation"() {
+        when:
+        def serial = compileUnit([:])
+        def batch = compileUnit((ValidationOptions.BATCH): true)
+        def parallelBatch = compileUnit((ValidationOptions.BATCH): true, (ValidationOptions.PARALLEL): true)
+
+        then:
+        serial.size() == 24
+        batch == serial
+        parallelBatch == serial
+    }
+
+    def "uses are grouped by annotation type across source units"() {
+        given:
+        def scope = new CompilationScope()
+        def batch = new BatchValidation(scope)
+        def unit = new CompilationUnit(compilerConfiguration, null, loader)
+        addSources(unit)
+        unit.compile(Phases.CONVERSION)
+
+        when:
+        unit.iterator().each { source ->
+            def uses = []
+            source.AST.classes.each { ClassNode type ->
+                type.methods.each { method ->
+                    method.annotations.each { uses << new AnnotationUse(it, method, type) }
+                }
+            }
+            batch.collect(source, uses)
+        }
+
+        then:
+        batch.groupCount == 2
+    }
+
+    List<String> compileUnit(Map<String, Boolean> options) {
+        compilerConfiguration.optimizationOptions.clear()
+        compilerConfiguration.optimizationOptions.putAll(options)
+        def unit = new CompilationUnit(compilerConfiguration, null, new GroovyClassLoader(loader, compilerConfiguration))
+        addSources(unit)
+        try {
+            unit.compile(Phases.SEMANTIC_ANALYSIS)
+            return []
+        } catch (MultipleCompilationErrorsException exception) {
+            return exception.errorCollector.errors*.cause*.message
+        }
+    }
+
+    void addSources(CompilationUnit unit) {
+        (1..6).each { index ->
+            unit.addSource("Source${index}.groovy", """
+class Source$index {
+    @StaticOnly def first() {}
+    @OneParameter def second() {}
+    @StaticOnly @OneParameter def third$index() {}
+}
+""")
+        }
+    }
+}
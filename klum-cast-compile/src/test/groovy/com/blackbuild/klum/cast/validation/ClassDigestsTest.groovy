@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.intellij.lang.annotations.Language
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ClassDigestsTest extends AstSpec {
+
+    File getLibrary() { new File(compilerConfiguration.targetDirectory, 'library') }
+
+    Path getDigestFile() { compilerConfiguration.targetDirectory.toPath().resolve('main-klum-cast.digests') }
+
+    def "persisted digests version plans of fresh class loaders without reading class files again"() {
+        given:
+        compileLibrary '@MustBeStatic @interface StaticOnly {}'
+        def first = new ClassDigests()
+        first.persistIn(digestFile)
+        def version = planVersion(first)
+        def persisted = Files.readAllLines(digestFile)
+
+        when:
+        def second = new ClassDigests()
+        second.persistIn(digestFile)
+
+        then:
+        version ==~ /[0-9a-f]{64}/
+        persisted.size() == first.size()
+        second.size() == first.size()
+        planVersion(second) == version
+        Files.readAllLines(digestFile) == persisted
+
+        and: 'versions do not depend on the cache'
+        planVersion(new ClassDigests()) == version
+    }
+
+    def "changed class files are read again"() {
+        given:
+        compileLibrary '@MustBeStatic @interface StaticOnly {}'
+        def digests = new ClassDigests()
+        digests.persistIn(digestFile)
+        def version = planVersion(digests)
+        def persisted = Files.readAllLines(digestFile)
+        Thread.sleep(10)
+
+        when:
+        compileLibrary '@MustBeStatic @NumberOfParameters(0) @interface StaticOnly {}'
+        def changed = new ClassDigests()
+        changed.persistIn(digestFile)
+
+        then:
+        planVersion(changed) != version
+        Files.readAllLines(digestFile).size() > persisted.size()
+
+        when: 'the next build loads the digests'
+        def appended = Files.readAllLines(digestFile)
+        def next = new ClassDigests()
+        next.persistIn(digestFile)
+        def compacted = Files.readAllLines(digestFile)
+
+        then: 'only the latest digest of each class file is kept'
+        compacted.size() < appended.size()
+        compacted.collect { it.substring(65, it.lastIndexOf(' ', it.lastIndexOf(' ') - 1)) }.toSet().size() == compacted.size()
+        next.size() == compacted.size()
+        planVersion(next) == planVersion(changed)
+        Files.readAllLines(digestFile) == compacted
+    }
+
+    def "plans with name-bound checks the annotation type cannot see are not versioned"() {
+        when:
+        compileLibrary '@KlumCastValidator("com.example.TargetOnlyCheck") @interface StaticOnly {}'
+
+        then:
+        planVersion(new ClassDigests()) == null
+
+        when:
+        compileLibrary '@KlumCastValidator("com.blackbuild.klum.cast.compiler.internal.checks.UniquePerClassCheck") @interface StaticOnly {}'
+
+        then:
+        planVersion(new ClassDigests()) ==~ /[0-9a-f]{64}/
+    }
+
+    void compileLibrary(@Language("groovy") String code) {
+        library.deleteDir()
+        def configuration = new CompilerConfiguration(targetDirectory: library)
+        configuration.addCompilationCustomizers(importCustomizer)
+        def unit = new CompilationUnit(configuration, null, new GroovyClassLoader(loader, configuration))
+        unit.addSource('StaticOnly.groovy', "@Retention(RetentionPolicy.RUNTIME) @KlumCastValidated $code")
+        unit.compile()
+    }
+
+    String planVersion(ClassDigests digests) {
+        def type = new URLClassLoader([library.toURI().toURL()] as URL[], loader).loadClass('StaticOnly')
+        return ValidationPlan.of(type).getVersion(digests)
+    }
+}
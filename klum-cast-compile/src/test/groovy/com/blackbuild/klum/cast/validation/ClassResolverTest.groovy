@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+class ClassResolverTest extends AstSpec {
+
+    def "library classes are shared across compilations of the same class loader"() {
+        given:
+        def first = new ClassResolver()
+        def second = new ClassResolver()
+
+        when:
+        def resolved = first.resolve(DummyValidator.name, loader)
+
+        then:
+        resolved == DummyValidator
+        ClassResolver.isSharedAcrossCompilations(DummyValidator.name, loader)
+        second.resolve(DummyValidator.name, loader).is(resolved)
+        !ClassResolver.isSharedAcrossCompilations(DummyValidator.name, new GroovyClassLoader(loader))
+    }
+
+    def "classes compiled by Groovy class loaders are only cached per compilation"() {
+        given:
+        def compiled = createClass '''
+package resolver
+class Compiled {}
+'''
+        def resolver = new ClassResolver()
+
+        expect:
+        resolver.resolve('resolver.Compiled', loader).is(compiled)
+        !ClassResolver.isSharedAcrossCompilations('resolver.Compiled', loader)
+    }
+
+    def "failed lookups are remembered for one compilation only"() {
+        given:
+        def resolver = new ClassResolver()
+
+        when:
+        resolver.resolve('resolver.Late', loader)
+
+        then:
+        thrown(ClassNotFoundException)
+
+        when:
+        def late = createClass '''
+package resolver
+class Late {}
+'''
+        resolver.resolve('resolver.Late', loader)
+
+        then:
+        thrown(ClassNotFoundException)
+        new ClassResolver().resolve('resolver.Late', loader).is(late)
+    }
+}
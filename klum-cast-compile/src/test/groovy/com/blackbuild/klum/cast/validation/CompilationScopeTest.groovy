@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.ast.ClassHelper
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.codehaus.groovy.control.Phases
+
+class CompilationScopeTest extends AstSpec {
+
+    def "each annotation type is classified once per compilation"() {
+        given:
+        def validated = createAnnotation '''
+@Target([ElementType.METHOD])
+@MustBeStatic
+@interface Validated {}
+'''
+        def scope = new CompilationScope()
+
+        when:
+        def results = [
+                scope.isValidatedAnnotationType(ClassHelper.make(validated)),
+                scope.isValidatedAnnotationType(ClassHelper.make(Override)),
+                scope.isValidatedAnnotationType(ClassHelper.make(validated)),
+                scope.isValidatedAnnotationType(ClassHelper.make(Override)),
+                scope.isValidatedAnnotationType(ClassHelper.make(Override))
+        ]
+
+        then:
+        results == [true, false, true, false, false]
+        scope.detectionLookups == 5
+        scope.detectionHits == 3
+        scope.detectionHitRate == 0.6d
+    }
+
+    def "meta-annotation cycles are classified without caching their intermediate results"() {
+        given:
+        createClass '''
+package cycle
+import java.lang.annotation.*
+import com.blackbuild.klum.cast.checks.*
+
+@Retention(RetentionPolicy.RUNTIME)
+@Second
+@interface First {}
+
+@Retention(RetentionPolicy.RUNTIME)
+@First
+@MustBeStatic
+@interface Second {}
+'''
+        def scope = new CompilationScope()
+
+        expect:
+        scope.isValidatedAnnotationType(ClassHelper.make(getClass('cycle.First')))
+        scope.isValidatedAnnotationType(ClassHelper.make(getClass('cycle.Second')))
+        scope.detectionHits == 0
+    }
+
+    def "annotation types of indexed classpath roots are classified from the published index"() {
+        given:
+        def validated = createAnnotation '''
+package indexed
+@Target([ElementType.METHOD])
+@MustBeStatic
+@interface Validated {}
+'''
+        def plain = createClass '''
+package indexed
+import java.lang.annotation.*
+@Retention(RetentionPolicy.RUNTIME)
+@interface Plain {}
+'''
+        def indexFile = new File(compilerConfiguration.targetDirectory, ValidationIndex.LOCATION)
+        indexFile.parentFile.mkdirs()
+        indexFile.text = '''# generated
+indexed.Plain
+'''
+        def indexedLoader = new URLClassLoader([compilerConfiguration.targetDirectory.toURI().toURL()] as URL[], loader)
+        def scope = new CompilationScope()
+        scope.useClassLoader(indexedLoader)
+
+        expect: 'listed types are validated and unlisted types of the indexed root are not, without looking at them'
+        scope.isValidatedAnnotationType(ClassHelper.make(plain))
+        !scope.isValidatedAnnotationType(ClassHelper.make(validated))
+        scope.indexAnswers == 2
+
+        and: 'types outside of indexed roots are still classified by their meta-annotations'
+        !scope.isValidatedAnnotationType(ClassHelper.make(Override))
+        scope.indexAnswers == 2
+    }
+
+    def "index entries whose fingerprint does not match the annotation type are ignored"() {
+        given:
+        def validated = createAnnotation '''
+package indexed
+@Target([ElementType.METHOD])
+@MustBeStatic
+@interface Validated {}
+'''
+        def plain = createClass '''
+package indexed
+import java.lang.annotation.*
+@Retention(RetentionPolicy.RUNTIME)
+@interface Plain {}
+'''
+        def indexFile = new File(compilerConfiguration.targetDirectory, ValidationIndex.LOCATION)
+        indexFile.parentFile.mkdirs()
+        indexFile.text = """indexed.Plain 0a1b2c
+indexed.Validated ${ValidationIndex.fingerprintOf(ClassHelper.make(validated))}
+"""
+        def scope = new CompilationScope()
+        scope.useClassLoader(new URLClassLoader([compilerConfiguration.targetDirectory.toURI().toURL()] as URL[], loader))
+
+        expect: 'a stale entry is classified by its meta-annotations'
+        !scope.isValidatedAnnotationType(ClassHelper.make(plain))
+        scope.indexAnswers == 0
+
+        and: 'a matching entry is answered by the index'
+        scope.isValidatedAnnotationType(ClassHelper.make(validated))
+        scope.indexAnswers == 1
+    }
+
+    def "source units without validated annotations are skipped by the pre-scan"() {
+        given:
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+        def unit = new CompilationUnit(compilerConfiguration, null, loader)
+        unit.addSource('Plain.groovy', 'class Plain { @Deprecated def method(@Deprecated parameter) {} }')
+        unit.addSource('Empty.groovy', 'class Empty {}')
+        unit.addSource('Parameter.groovy', 'class Parameter { static method(@StaticOnly parameter) {} }')
+        unit.addSource('Used.groovy', 'class Used { @StaticOnly static method() {} }')
+        unit.compile(Phases.SEMANTIC_ANALYSIS)
+        def transformation = new KlumCastTransformation()
+
+        when:
+        unit.iterator().each { transformation.visit(null, it) }
+
+        then:
+        transformation.scope.skippedSourceUnits == 2
+    }
+
+    def "passing outcomes of deterministic checks are reused for structurally identical uses"() {
+        given:
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+        compilerConfiguration.disabledGlobalASTTransformations = [KlumCastTransformation.name] as Set
+        def unit = new CompilationUnit(compilerConfiguration, null, loader)
+        unit.addSource('First.groovy', 'class First { @StaticOnly static first() {} ; @StaticOnly static second() {} }')
+        unit.addSource('Second.groovy', 'class Second { @StaticOnly static third() {} ; @StaticOnly static String fourth() {} }')
+        unit.compile(Phases.SEMANTIC_ANALYSIS)
+        def transformation = new KlumCastTransformation()
+
+        when:
+        unit.iterator().each { transformation.visit(null, it) }
+
+        then:
+        transformation.scope.reusedOutcomes == 2
+    }
+
+    def "failing uses of deterministic checks are always checked"() {
+        given:
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+
+        when:
+        createClass '''
+class Failing {
+    @StaticOnly def first() {}
+    @StaticOnly def second() {}
+}
+'''
+
+        then:
+        def exception = thrown(MultipleCompilationErrorsException)
+        exception.errorCollector.errorCount == 2
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import com.blackbuild.klum.cast.spi.internal.DiagnosticTemplate
+import spock.lang.Specification
+
+class DiagnosticTemplatesTest extends Specification {
+
+    def "templates are compiled once into segments and rendered in a single pass"() {
+        when:
+        def template = DiagnosticTemplate.compile('{{literal}} {name} needs {count}}}')
+
+        then:
+        template.argumentNames == ['name', 'count'] as Set
+        template.render([name: 'foo', count: 2]) == '{literal} foo needs 2}'
+        template.render([name: 'bar', count: null]) == '{literal} bar needs null}'
+    }
+
+    def "malformed templates and unknown arguments are rejected"() {
+        when:
+        DiagnosticTemplate.compile(source)
+
+        then:
+        def failure = thrown(IllegalArgumentException)
+        failure.message.contains(expected)
+
+        where:
+        source      | expected
+        'open {x'   | 'Unclosed diagnostic template argument'
+        'close } '  | "Unescaped '}'"
+        'bad {a-b}' | "Unknown diagnostic template argument 'a-b'"
+    }
+
+    def "rendering requires every referenced argument"() {
+        given:
+        def template = DiagnosticTemplate.compile('{name} and {other}')
+
+        when:
+        template.validate(['name', 'other'] as Set)
+
+        then:
+        noExceptionThrown()
+
+        when:
+        template.render([name: 'foo'])
+
+        then:
+        def failure = thrown(IllegalArgumentException)
+        failure.message.contains("Unknown diagnostic template argument 'other'")
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.Phases
+import org.intellij.lang.annotations.Language
+
+class IncrementalValidationTest extends AstSpec {
+
+    File getLibrary() { new File(compilerConfiguration.targetDirectory, 'library') }
+
+    File getClasses() { new File(compilerConfiguration.targetDirectory, 'classes/main') }
+
+    def "unchanged source units that passed are skipped in the next build"() {
+        given:
+        compileLibrary '@MustBeStatic @interface StaticOnly {}'
+        def first = 'class First { @StaticOnly static method() {} }'
+        def second = 'class Second { @StaticOnly static method() {} }'
+
+        expect:
+        build(First: first, Second: second) == [0, 0]
+        new File(classes.parentFile, 'main-klum-cast.state').isFile()
+        build(First: first, Second: second) == [2, 0]
+
+        and: 'method bodies are not part of the fingerprint'
+        build(First: first, Second: 'class Second { @StaticOnly static method() { println "changed" } }') == [2, 0]
+    }
+
+    def "source units with diagnostics are validated again"() {
+        given:
+        compileLibrary '@MustBeStatic @interface StaticOnly {}'
+        def first = 'class First { @StaticOnly static method() {} }'
+        def broken = 'class Second { @StaticOnly static method() {} ; @StaticOnly def other() {} }'
+        def fixed = 'class Second { @StaticOnly static method() {} ; @StaticOnly static other() {} }'
+
+        expect:
+        build(First: first, Second: broken) == [0, 1]
+        build(First: first, Second: broken) == [1, 1]
+        build(First: first, Second: fixed) == [1, 0]
+        build(First: first, Second: fixed) == [2, 0]
+    }
+
+    def "incremental validation is honored by parallel and batch validation"() {
+        given:
+        compileLibrary '@MustBeStatic @interface StaticOnly {}'
+        def first = 'class First { @StaticOnly static method() {} }'
+        def broken = 'class Second { @StaticOnly def method() {} }'
+        build(First: first, Second: broken)
+
+        expect:
+        build([First: first, Second: broken], option) == [1, 1]
+
+        where:
+        option << [ValidationOptions.PARALLEL, ValidationOptions.BATCH]
+    }
+
+    def "a changed validation library invalidates all source units"() {
+        given:
+        compileLibrary '@MustBeStatic @interface StaticOnly {}'
+        def first = 'class First { @StaticOnly static method() {} }'
+        build(First: first)
+
+        when:
+        compileLibrary '@MustBeStatic @NumberOfParameters(0) @interface StaticOnly {}'
+
+        then:
+        build(First: first) == [0, 0]
+        build(First: first) == [1, 0]
+    }
+
+    def "changed declarations of referenced source types invalidate the referencing source unit"() {
+        given:
+        compileLibrary '''@com.blackbuild.klum.cast.spi.CheckBinding(NotDeprecatedType) @interface StaticOnly {}
+class NotDeprecatedType implements com.blackbuild.klum.cast.spi.Check {
+    List<com.blackbuild.klum.cast.spi.Diagnostic> check(com.blackbuild.klum.cast.spi.CheckContext context) {
+        if (!context.target.type.annotations.any { it.classNode.name == Deprecated.name }) return []
+        [new com.blackbuild.klum.cast.spi.Diagnostic(NotDeprecatedType.name, "Deprecated type", context.validatedAnnotation)]
+    }
+}'''
+        def holder = 'class Holder { @StaticOnly Value value }'
+
+        expect:
+        build(Holder: holder, Value: 'class Value { def method() {} }') == [0, 0]
+        build(Holder: holder, Value: 'class Value { def method() { println "changed" } }') == [2, 0]
+        build(Holder: holder, Value: '@Deprecated class Value { def method() {} }') == [0, 1]
+        build(Holder: holder, Value: '@Deprecated class Value { def method() {} }') == [1, 1]
+    }
+
+    void compileLibrary(@Language("groovy") String code) {
+        library.deleteDir()
+        def configuration = new CompilerConfiguration(targetDirectory: library)
+        configuration.addCompilationCustomizers(importCustomizer)
+        def unit = new CompilationUnit(configuration, null, new GroovyClassLoader(loader, configuration))
+        unit.addSource('StaticOnly.groovy', "@Retention(RetentionPolicy.RUNTIME) @KlumCastValidated $code")
+        unit.compile()
+    }
+
+    /** @return the number of skipped source units and the number of reported errors */
+    List<Integer> build(Map<String, String> sources, String option = null) {
+        def configuration = new CompilerConfiguration(targetDirectory: classes)
+        configuration.addCompilationCustomizers(importCustomizer)
+        configuration.optimizationOptions[ValidationOptions.INCREMENTAL] = true
+        if (option) configuration.optimizationOptions[option] = true
+        configuration.disabledGlobalASTTransformations = [KlumCastTransformation.name] as Set
+        def libraryLoader = new URLClassLoader([library.toURI().toURL()] as URL[], loader)
+        def unit = new CompilationUnit(configuration, null, new GroovyClassLoader(libraryLoader, configuration))
+        sources.each { name, code -> unit.addSource("${name}.groovy", code) }
+        unit.compile(Phases.SEMANTIC_ANALYSIS)
+        def transformation = new KlumCastTransformation()
+        transformation.compilationUnit = unit
+        unit.iterator().each { transformation.visit(null, it) }
+        return [transformation.scope.unchangedSourceUnits as int, unit.errorCollector.errorCount]
+    }
+}
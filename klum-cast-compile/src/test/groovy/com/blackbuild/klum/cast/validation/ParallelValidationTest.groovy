@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.codehaus.groovy.control.Phases
+
+class ParallelValidationTest extends AstSpec {
+
+    def "parallel validation reports the same diagnostics in the same order as serial validation"() {
+        given:
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+
+        when:
+        def serial = compileUnit(false)
+        def parallel = compileUnit(true)
+
+        then:
+        serial.size() == 16
+        parallel == serial
+    }
+
+    def "parallel validation accepts valid source units"() {
+        given:
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+
+        expect:
+        compileUnit(true, 'static') == []
+    }
+
+    def "only checks marked thread-safe share their instance between validating threads"() {
+        given:
+        createClass '''
+package confined
+import com.blackbuild.klum.cast.spi.*
+import java.lang.annotation.*
+import java.util.concurrent.ConcurrentHashMap
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(Confined.ConfinedCheck)
+@interface Confined {
+    static class ConfinedCheck implements Check {
+        static final Map<Check, Set<Thread>> THREADS = new ConcurrentHashMap<>()
+        List<Diagnostic> check(CheckContext context) {
+            THREADS.computeIfAbsent(this) { ConcurrentHashMap.newKeySet() }.add(Thread.currentThread())
+            []
+        }
+    }
+}
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(Shared.SharedCheck)
+@interface Shared {
+    @ThreadSafe
+    static class SharedCheck implements Check {
+        static final Set<Check> INSTANCES = ConcurrentHashMap.newKeySet()
+        List<Diagnostic> check(CheckContext context) {
+            INSTANCES.add(this)
+            []
+        }
+    }
+}
+'''
+        createAnnotation '''
+@confined.Confined
+@confined.Shared
+@interface StaticOnly {}
+'''
+
+        when:
+        compileUnit(true, 'static')
+
+        then:
+        Map<?, Set<Thread>> confinedThreads = getClass('confined.Confined$ConfinedCheck').THREADS
+        !confinedThreads.isEmpty()
+        confinedThreads.values().every { it.size() == 1 }
+        getClass('confined.Shared$SharedCheck').INSTANCES.size() == 1
+    }
+
+    List<String> compileUnit(boolean parallel, String modifier = '') {
+        compilerConfiguration.optimizationOptions[ValidationOptions.PARALLEL] = parallel
+        def unit = new CompilationUnit(compilerConfiguration, null, new GroovyClassLoader(loader, compilerConfiguration))
+        (1..8).each { index ->
+            unit.addSource("Source${index}.groovy", """
+class Source$index {
+    @StaticOnly $modifier def first() {}
+    @StaticOnly static second() {}
+    @StaticOnly $modifier def third$index() {}
+}
+""")
+        }
+        try {
+            unit.compile(Phases.SEMANTIC_ANALYSIS)
+            return []
+        } catch (MultipleCompilationErrorsException exception) {
+            return exception.errorCollector.errors*.cause*.message
+        }
+    }
+}
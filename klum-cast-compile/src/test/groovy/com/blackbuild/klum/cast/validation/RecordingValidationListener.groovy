@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import com.blackbuild.klum.cast.spi.ApplicabilityFilter
+import com.blackbuild.klum.cast.spi.CheckContext
+import com.blackbuild.klum.cast.spi.Diagnostic
+import com.blackbuild.klum.cast.spi.ValidationListener
+import org.codehaus.groovy.ast.AnnotatedNode
+import org.codehaus.groovy.ast.AnnotationNode
+
+import java.lang.annotation.Annotation
+
+/**
+ * Registered by {@link ValidationListenerTest} for the compiler classes of a single feature. Only records notifications
+ * on threads that called {@link #record}.
+ */
+class RecordingValidationListener implements ValidationListener {
+
+    private static final ThreadLocal<List<String>> NOTIFICATIONS = new ThreadLocal<>()
+
+    static List<String> record(Closure<?> action) {
+        List<String> notifications = []
+        NOTIFICATIONS.set(notifications)
+        try {
+            action()
+        } finally {
+            NOTIFICATIONS.remove()
+        }
+        return notifications
+    }
+
+    @Override
+    void useStarted(AnnotationNode annotation, AnnotatedNode target) {
+        NOTIFICATIONS.get()?.add("use started ${annotation.classNode.name} on ${target.class.simpleName}".toString())
+    }
+
+    @Override
+    void useFinished(AnnotationNode annotation, AnnotatedNode target, List<Diagnostic> diagnostics) {
+        NOTIFICATIONS.get()?.add("use finished ${annotation.classNode.name} on ${target.class.simpleName}: ${diagnostics.size()}".toString())
+    }
+
+    @Override
+    void filterDecided(ApplicabilityFilter filter, CheckContext context, boolean applies) {
+        NOTIFICATIONS.get()?.add("filter ${filter.class.simpleName}: $applies".toString())
+    }
+
+    @Override
+    void checkStarted(CheckContext context) {
+        NOTIFICATIONS.get()?.add("check started ${simpleName(context)}".toString())
+    }
+
+    @Override
+    void checkFinished(CheckContext context, List<Diagnostic> diagnostics) {
+        NOTIFICATIONS.get()?.add("check finished ${simpleName(context)}: ${diagnostics.size()}".toString())
+    }
+
+    @Override
+    void orBranchEvaluated(AnnotationNode annotation, AnnotatedNode target, Annotation branch, Outcome outcome) {
+        NOTIFICATIONS.get()?.add("branch ${branch.annotationType().simpleName}: $outcome".toString())
+    }
+
+    @Override
+    void diagnosticEmitted(Diagnostic diagnostic) {
+        NOTIFICATIONS.get()?.add("diagnostic ${diagnostic.code}".toString())
+    }
+
+    private static String simpleName(CheckContext context) {
+        context.binding.implementationName.tokenize('.$').last()
+    }
+}
@@ -100,4 +100,38 @@ class C {}
         anns.every { it.annotationType() == getClass("an.A") }
     }
 
+    def "annotations with a single value member that are no containers are not unwrapped"() {
+        given:
+        createClass '''
+package an
+
+import java.lang.annotation.RetentionPolicy
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@interface Plain {
+    A[] value()
+}
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@interface Named {
+    String value()
+}
+'''
+        importCustomizer.addImports("an.Plain", "an.Named")
+
+        when:
+        def C = createClass '''
+@Plain([@A, @A])
+@Named("x")
+class C {}
+'''
+        def plain = C.getAnnotation(getClass("an.Plain"))
+        def named = C.getAnnotation(getClass("an.Named"))
+
+        then:
+        RepeatableAnnotationsSupport.unwrapAnnotations(plain).toArray() as List == [plain]
+        RepeatableAnnotationsSupport.unwrapAnnotations(named).toArray() as List == [named]
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import com.sun.net.httpserver.HttpServer
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.Phases
+import spock.util.environment.RestoreSystemProperties
+
+@RestoreSystemProperties
+class SharedResultsTest extends AstSpec {
+
+    static final Map<String, String> PASSING = [
+            First : 'class First { @StaticOnly static method() {} }',
+            Second: 'class Second { @StaticOnly static method() {} }'
+    ]
+    static final Map<String, String> FAILING = [
+            First : 'class First { @StaticOnly static method() {} }',
+            Second: 'class Second { @StaticOnly def method() {} }'
+    ]
+
+    List<String> warnings = []
+
+    File getLibrary() { new File(compilerConfiguration.targetDirectory, 'library') }
+
+    def "passing source units are shared through a directory store"() {
+        given:
+        compileLibrary()
+        System.setProperty(ValidationOptions.STORE, new File(compilerConfiguration.targetDirectory, 'store').path)
+
+        expect: 'only passing units are stored'
+        build('agent1', FAILING) == [0, 1]
+        build('agent2', FAILING) == [1, 1]
+        build('agent3', PASSING) == [1, 0]
+        build('agent4', PASSING) == [2, 0]
+    }
+
+    def "passing source units are shared through an HTTP store"() {
+        given:
+        compileLibrary()
+        Set<String> stored = Collections.synchronizedSet(new HashSet<>())
+        def server = HttpServer.create(new InetSocketAddress('127.0.0.1', 0), 0)
+        server.createContext('/cache/') { exchange ->
+            def key = exchange.requestURI.path - '/cache/'
+            int status = exchange.requestHeaders.getFirst('Authorization') != 'Bearer secret' ? 401
+                    : exchange.requestMethod == 'PUT' ? 201 : key in stored ? 200 : 404
+            if (status == 201) stored << key
+            exchange.sendResponseHeaders(status, -1)
+            exchange.close()
+        }
+        server.start()
+        System.setProperty(ValidationOptions.STORE, "http://127.0.0.1:$server.address.port/cache")
+        System.setProperty('klumcast.store.token', 'secret')
+
+        when:
+        def first = build('agent1', PASSING)
+        def second = build('agent2', PASSING)
+
+        then:
+        first == [0, 0]
+        stored.size() == 2
+        stored.every { it ==~ /[0-9a-f]{64}/ }
+        second == [2, 0]
+
+        cleanup:
+        server?.stop(0)
+    }
+
+    def "an HTTP store is not opened without a token"() {
+        given:
+        compileLibrary()
+        List<String> requests = Collections.synchronizedList([])
+        def server = HttpServer.create(new InetSocketAddress('127.0.0.1', 0), 0)
+        server.createContext('/cache/') { exchange ->
+            requests << exchange.requestMethod
+            exchange.sendResponseHeaders(200, -1)
+            exchange.close()
+        }
+        server.start()
+        System.setProperty(ValidationOptions.STORE, "http://127.0.0.1:$server.address.port/cache")
+        System.clearProperty('klumcast.store.token')
+
+        when:
+        def result = build('agent1', FAILING)
+
+        then:
+        result == [0, 1]
+        requests.isEmpty()
+        warnings.size() == 1
+        warnings[0].startsWith('KlumCast result store disabled: The HTTP result store')
+        warnings[0].contains('klumcast.store.token')
+
+        cleanup:
+        server?.stop(0)
+    }
+
+    def "an unreachable store falls back to full validation"() {
+        given:
+        compileLibrary()
+        def server = HttpServer.create(new InetSocketAddress('127.0.0.1', 0), 0)
+        def port = server.address.port
+        server.stop(0)
+        System.setProperty(ValidationOptions.STORE, "http://127.0.0.1:$port/cache")
+        System.setProperty('klumcast.store.token', 'secret')
+
+        expect:
+        build('agent1', FAILING) == [0, 1]
+    }
+
+    def "unsupported store locations disable the store with a warning"() {
+        given:
+        compileLibrary()
+        System.setProperty(ValidationOptions.STORE, 'ftp://example.invalid/cache')
+
+        expect:
+        build('agent1', FAILING) == [0, 1]
+        warnings == ['KlumCast result store disabled: No result store provider supports ftp://example.invalid/cache']
+    }
+
+    void compileLibrary() {
+        def configuration = new CompilerConfiguration(targetDirectory: library)
+        configuration.addCompilationCustomizers(importCustomizer)
+        def unit = new CompilationUnit(configuration, null, new GroovyClassLoader(loader, configuration))
+        unit.addSource('StaticOnly.groovy', '@Retention(RetentionPolicy.RUNTIME) @KlumCastValidated @MustBeStatic @interface StaticOnly {}')
+        unit.compile()
+    }
+
+    /** @return the number of units answered by the store and the number of reported errors */
+    List<Integer> build(String agent, Map<String, String> sources) {
+        def configuration = new CompilerConfiguration(targetDirectory: new File(compilerConfiguration.targetDirectory, agent))
+        configuration.addCompilationCustomizers(importCustomizer)
+        configuration.disabledGlobalASTTransformations = [KlumCastTransformation.name] as Set
+        def libraryLoader = new URLClassLoader([library.toURI().toURL()] as URL[], loader)
+        def unit = new CompilationUnit(configuration, null, new GroovyClassLoader(libraryLoader, configuration))
+        sources.each { name, code -> unit.addSource("${name}.groovy", code) }
+        unit.compile(Phases.SEMANTIC_ANALYSIS)
+        def transformation = new KlumCastTransformation()
+        transformation.compilationUnit = unit
+        unit.iterator().each { transformation.visit(null, it) }
+        warnings = unit.errorCollector.warnings*.message ?: []
+        return [transformation.scope.sharedResults as int, unit.errorCollector.errorCount]
+    }
+}
@@ -220,6 +220,152 @@ class SplitTarget {}
         valueHolder.nameFilterRan
     }
 
+    def "stateless checks are instantiated once per compilation while legacy checks stay fresh"() {
+        given:
+        createClass '''
+package fixture
+
+import com.blackbuild.klum.cast.checks.impl.KlumCastCheck
+import com.blackbuild.klum.cast.spi.*
+import org.codehaus.groovy.ast.AnnotatedNode
+import org.codehaus.groovy.ast.AnnotationNode
+import java.lang.annotation.*
+import java.util.List
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(CountingConstraint.CountingCheck)
+@interface CountingConstraint {
+    static class CountingCheck implements Check {
+        CountingCheck() {
+            def holder = com.blackbuild.klum.cast.validation.AstSpec.currentTest.valueHolder
+            holder.stateless = (holder.stateless ?: 0) + 1
+        }
+        List<Diagnostic> check(CheckContext context) { [] }
+    }
+}
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(LegacyCountingConstraint.LegacyCountingCheck)
+@interface LegacyCountingConstraint {
+    static class LegacyCountingCheck extends KlumCastCheck<LegacyCountingConstraint> {
+        protected void doCheck(AnnotationNode annotationToCheck, AnnotatedNode target) {
+            def holder = com.blackbuild.klum.cast.validation.AstSpec.currentTest.valueHolder
+            holder.legacy = (holder.legacy ?: []) + [this]
+        }
+    }
+}
+'''
+        createClass '''
+package fixture
+import com.blackbuild.klum.cast.*
+import java.lang.annotation.*
+
+@Target([ElementType.TYPE, ElementType.FIELD])
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@CountingConstraint
+@LegacyCountingConstraint
+@interface Counted {}
+'''
+
+        when:
+        createClass '''
+package fixture
+@Counted
+class First {
+    @Counted String a
+    @Counted String b
+}
+'''
+
+        then:
+        valueHolder.stateless == 1
+        valueHolder.legacy.size() == 3
+        valueHolder.legacy.toSet().size() == 3
+
+        when:
+        createClass '''
+package fixture
+@Counted
+class Second {}
+'''
+
+        then:
+        valueHolder.stateless == 2
+        valueHolder.legacy.toSet().size() == 4
+    }
+
+    def "filters are instantiated once per compilation and shared by typed and member filters"() {
+        given:
+        createClass '''
+package fixture
+
+import com.blackbuild.klum.cast.KlumCastValidator
+import com.blackbuild.klum.cast.spi.*
+import java.lang.annotation.*
+import java.util.List
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(value = FilteredConstraint.QuietCheck, filters = [FilteredConstraint.CountingFilter])
+@KlumCastValidator(type = FilteredConstraint.QuietCheck, validFor = FilteredConstraint.CountingFilter)
+@interface FilteredConstraint {
+    static class QuietCheck implements Check {
+        List<Diagnostic> check(CheckContext context) { [] }
+    }
+    static class CountingFilter implements ApplicabilityFilter {
+        CountingFilter() {
+            def holder = com.blackbuild.klum.cast.validation.AstSpec.currentTest.valueHolder
+            holder.filterInstances = (holder.filterInstances ?: 0) + 1
+        }
+        boolean appliesTo(CheckContext context) {
+            def holder = com.blackbuild.klum.cast.validation.AstSpec.currentTest.valueHolder
+            holder.filterCalls = (holder.filterCalls ?: 0) + 1
+            true
+        }
+    }
+}
+'''
+        createClass '''
+package fixture
+import com.blackbuild.klum.cast.*
+import java.lang.annotation.*
+
+@Target([ElementType.TYPE, ElementType.FIELD])
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@FilteredConstraint
+@interface Filtered {}
+'''
+
+        when:
+        createClass '''
+package fixture
+@Filtered
+class First {
+    @Filtered String a
+    @Filtered String b
+}
+'''
+
+        then:
+        valueHolder.filterInstances == 1
+        valueHolder.filterCalls == 6
+
+        when:
+        createClass '''
+package fixture
+@Filtered
+class Second {}
+'''
+
+        then:
+        valueHolder.filterInstances == 2
+        valueHolder.filterCalls == 8
+    }
+
     def "technical failures preserve their causes"() {
         when:
         execute(ConstructionFailure.getAnnotation(CheckBinding))
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+
+import java.nio.file.Files
+
+class ValidationEventsTest extends AstSpec {
+
+    Recording recording = new Recording()
+
+    def setup() {
+        createClass '''
+package events
+import com.blackbuild.klum.cast.spi.*
+import org.codehaus.groovy.ast.MethodNode
+import java.lang.annotation.*
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(value = Quiet.QuietCheck, filters = Quiet.MethodsOnly)
+@interface Quiet {
+    static class QuietCheck implements Check {
+        List<Diagnostic> check(CheckContext context) { [] }
+    }
+    static class MethodsOnly implements ApplicabilityFilter {
+        boolean appliesTo(CheckContext context) { context.target instanceof MethodNode }
+    }
+}
+'''
+        createAnnotation '''
+@events.Quiet
+@MustBeStatic
+@interface StaticOnly {}
+'''
+        ['SourceUnit', 'AnnotationUse', 'Check', 'Filter'].each { recording.enable("com.blackbuild.klum.cast.$it") }
+    }
+
+    def cleanup() {
+        recording.close()
+    }
+
+    def "validation emits events for source units, uses, checks and filters"() {
+        when:
+        def events = record '''
+class User {
+    @StaticOnly def first() {}
+    @StaticOnly static second() {}
+}
+'''
+
+        then:
+        events['com.blackbuild.klum.cast.SourceUnit'].collect { [it.getBoolean('skipped'), it.getInt('errors')] } == [[false, 1]]
+        events['com.blackbuild.klum.cast.AnnotationUse'].collect {
+            [it.getString('annotationType'), it.getString('targetKind'), it.getInt('diagnostics')]
+        } as Set == [['StaticOnly', 'METHOD', 1], ['StaticOnly', 'METHOD', 0]] as Set
+        events['com.blackbuild.klum.cast.Check'].collect {
+            [it.getString('implementation').tokenize('.$').last(), it.getString('declaration'), it.getString('outcome')]
+        } as Set == [
+                ['MustBeStaticCheck', 'com.blackbuild.klum.cast.checks.MustBeStatic', 'FAILED'],
+                ['MustBeStaticCheck', 'com.blackbuild.klum.cast.checks.MustBeStatic', 'PASSED'],
+                ['QuietCheck', 'events.Quiet', 'PASSED']
+        ] as Set
+        events['com.blackbuild.klum.cast.Filter'].collect {
+            [it.getString('implementation'), it.getString('declaration'), it.getBoolean('applies')]
+        } == [['events.Quiet$MethodsOnly', 'events.Quiet', true]] * 2
+    }
+
+    def "skipped and clean source units are recorded"() {
+        when:
+        def events = record '''
+class Plain {
+    def method() {}
+}
+'''
+
+        then:
+        events['com.blackbuild.klum.cast.SourceUnit'].collect { [it.getBoolean('skipped'), it.getInt('errors')] } == [[false, 0]]
+        !events.containsKey('com.blackbuild.klum.cast.AnnotationUse')
+        !events.containsKey('com.blackbuild.klum.cast.Check')
+    }
+
+    Map<String, List<RecordedEvent>> record(String code) {
+        recording.start()
+        try {
+            createClass(code)
+        } catch (MultipleCompilationErrorsException ignored) {
+            // the diagnostics are asserted through the recorded events
+        }
+        recording.stop()
+        def file = Files.createTempFile('klum-cast', '.jfr')
+        try {
+            recording.dump(file)
+            return RecordingFile.readAllEvents(file)
+                    .findAll { it.eventType.name.startsWith('com.blackbuild.klum.cast.') }
+                    .groupBy { it.eventType.name }
+        } finally {
+            Files.delete(file)
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import com.blackbuild.klum.cast.spi.CheckContext
+import com.blackbuild.klum.cast.spi.ValidationListener
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.GroovyBugError
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+
+/**
+ * Listeners are only discovered once per compiler class loader. Each feature therefore registers its listeners for a
+ * fresh copy of the compiler classes instead of the whole test classpath, which keeps the no-listener path of all other
+ * tests intact.
+ */
+class ValidationListenerTest extends AstSpec {
+
+    URLClassLoader isolatedCompiler
+
+    def cleanup() {
+        isolatedCompiler?.close()
+    }
+
+    def "without registered listeners notifications are disabled"() {
+        expect:
+        !ValidationListeners.ACTIVE
+    }
+
+    def "listeners are notified about uses, checks, filters and diagnostics"() {
+        given:
+        registerListeners(RecordingValidationListener)
+        createClass '''
+package listened
+import com.blackbuild.klum.cast.spi.*
+import org.codehaus.groovy.ast.MethodNode
+import java.lang.annotation.*
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CheckBinding(value = Quiet.QuietCheck, filters = Quiet.MethodsOnly)
+@interface Quiet {
+    static class QuietCheck implements Check {
+        List<Diagnostic> check(CheckContext context) { [] }
+    }
+    static class MethodsOnly implements ApplicabilityFilter {
+        boolean appliesTo(CheckContext context) { context.target instanceof MethodNode }
+    }
+}
+'''
+        createAnnotation '''
+@listened.Quiet
+@MustBeStatic
+@interface StaticOnly {}
+'''
+
+        when:
+        def notifications = RecordingValidationListener.record {
+            compile '''
+class User {
+    @StaticOnly def method() {}
+}
+'''
+        }
+
+        then:
+        notifications == [
+                'use started StaticOnly on MethodNode',
+                'filter MethodsOnly: true',
+                'check started QuietCheck',
+                'check finished QuietCheck: 0',
+                'check started MustBeStaticCheck',
+                'check finished MustBeStaticCheck: 1',
+                'use finished StaticOnly on MethodNode: 1',
+                'diagnostic com.blackbuild.klum.cast.compiler.internal.checks.MustBeStaticCheck'
+        ]
+    }
+
+    def "listeners are notified about the outcome of each OR branch"() {
+        given:
+        registerListeners(RecordingValidationListener)
+        createAnnotation '''
+@Target(ElementType.ANNOTATION_TYPE)
+@OneCheckMustMatch
+@MustBeStatic
+@NumberOfParameters(0)
+@interface StaticOrWithoutParameters {}
+'''
+        createAnnotation '''
+@StaticOrWithoutParameters
+@interface Creator {}
+'''
+
+        when:
+        def notifications = RecordingValidationListener.record {
+            compile '''
+class User {
+    @Creator def create(String name) {}
+}
+'''
+        }
+
+        then:
+        notifications.findAll { it.startsWith('branch ') || it.startsWith('diagnostic ') } == [
+                'branch MustBeStatic: FAILED',
+                'branch NumberOfParameters: FAILED',
+                'diagnostic com.blackbuild.klum.cast.compiler.internal.checks.MustBeStaticCheck',
+                'diagnostic com.blackbuild.klum.cast.compiler.internal.checks.NumberOfParametersCheck',
+                'diagnostic klum-cast.composition.or.no-match'
+        ]
+    }
+
+    def "a failing listener is reported as listener failure, not as failure of the observed check"() {
+        given:
+        registerListeners(ThrowingListener)
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+
+        when:
+        createClass '''
+class User {
+    @StaticOnly static method() {}
+}
+'''
+
+        then:
+        def failure = thrown(GroovyBugError)
+        def listenerFailure = failure.cause
+        listenerFailure instanceof IllegalStateException
+        listenerFailure.message.contains("Technical failure for validation listener ${ThrowingListener.name}: threw in checkStarted")
+        !listenerFailure.message.contains('Technical failure for check')
+        listenerFailure.cause.message == 'listener exploded'
+    }
+
+    void registerListeners(Class<? extends ValidationListener>... listeners) {
+        def root = new File(compilerConfiguration.targetDirectory.parentFile, "$safeFilename-listeners")
+        root.deleteDir()
+        def services = new File(root, 'META-INF/services')
+        services.mkdirs()
+        new File(services, ValidationListener.name).text = listeners*.name.join('\n')
+        URL compiler = KlumCastTransformation.protectionDomain.codeSource.location
+        isolatedCompiler = new CompilerFirstClassLoader([compiler, root.toURI().toURL()] as URL[], oldLoader)
+        Thread.currentThread().contextClassLoader = isolatedCompiler
+        newClassLoader()
+    }
+
+    void compile(String code) {
+        try {
+            createClass(code)
+        } catch (MultipleCompilationErrorsException ignored) {
+            // the diagnostics are asserted through the notifications
+        }
+    }
+
+    static class ThrowingListener implements ValidationListener {
+        @Override
+        void checkStarted(CheckContext context) {
+            throw new IllegalArgumentException('listener exploded')
+        }
+    }
+
+    /**
+     * Loads the compiler classes itself, so they discover the listeners registered for the current feature only.
+     * Statically compiled, since dynamic calls would load classes through the loader being asked.
+     */
+    @CompileStatic
+    static class CompilerFirstClassLoader extends URLClassLoader {
+
+        CompilerFirstClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent)
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith('com.blackbuild.klum.cast.validation.') && !name.startsWith('com.blackbuild.klum.cast.compiler.'))
+                return super.loadClass(name, resolve)
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name)
+                if (type == null) {
+                    try {
+                        type = findClass(name)
+                    } catch (ClassNotFoundException ignored) {
+                        return super.loadClass(name, resolve)
+                    }
+                }
+                if (resolve) resolveClass(type)
+                return type
+            }
+        }
+    }
+}
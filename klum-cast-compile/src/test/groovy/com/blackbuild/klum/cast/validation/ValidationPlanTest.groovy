@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import com.blackbuild.klum.cast.compiler.internal.checks.MustBeStaticCheck
+import com.blackbuild.klum.cast.compiler.internal.checks.UniquePerClassCheck
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+
+class ValidationPlanTest extends AstSpec {
+
+    def "plans are compiled once per annotation type"() {
+        given:
+        def annotation = createAnnotation '''
+@Target([ElementType.METHOD, ElementType.FIELD])
+@MustBeStatic
+@interface Cached {
+    @OnlyOn(ElementType.FIELD) String value() default ''
+    String unvalidated() default ''
+}
+'''
+
+        when:
+        def plan = ValidationPlan.of(annotation)
+
+        then:
+        ValidationPlan.of(annotation).is(plan)
+        plan.steps*.kind == [ValidationPlan.Kind.VALIDATED]
+        plan.members*.name == ['value']
+        plan.members[0].steps*.kind == [ValidationPlan.Kind.VALIDATED]
+    }
+
+    def "repeatable containers are flattened and OR branches are kept out of the annotation steps"() {
+        given:
+        createClass '''
+package fixture
+import com.blackbuild.klum.cast.*
+import com.blackbuild.klum.cast.checks.*
+import java.lang.annotation.*
+
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@OneCheckMustMatch
+@NumberOfParameters(1)
+@MustBeStatic
+@interface StaticOrSingleParameter {}
+'''
+        def repeated = createAnnotation '''
+@Target([ElementType.METHOD])
+@KlumCastValidator("com.blackbuild.klum.cast.compiler.internal.checks.MustBeStaticCheck")
+@KlumCastValidator("com.blackbuild.klum.cast.compiler.internal.checks.UniquePerClassCheck")
+@interface Repeated {}
+'''
+        def composition = getClass('fixture.StaticOrSingleParameter')
+
+        when:
+        def compositionPlan = ValidationPlan.of(composition)
+
+        then:
+        ValidationPlan.of(repeated).steps*.checkName == [
+                'com.blackbuild.klum.cast.compiler.internal.checks.MustBeStaticCheck',
+                'com.blackbuild.klum.cast.compiler.internal.checks.UniquePerClassCheck'
+        ]
+        compositionPlan.steps*.kind == [ValidationPlan.Kind.OR_COMPOSITION]
+        compositionPlan.getOrBranches(null)*.annotation*.annotationType()*.simpleName == ['MustBeStatic', 'NumberOfParameters']
+    }
+
+    def "use-independent parts of steps are bound when the plan is built"() {
+        given:
+        def annotation = createAnnotation '''
+@Target([ElementType.METHOD, ElementType.FIELD])
+@KlumCastValidator(type = com.blackbuild.klum.cast.compiler.internal.checks.MustBeStaticCheck, validForTargets = ElementType.METHOD)
+@KlumCastValidator("com.blackbuild.klum.cast.compiler.internal.checks.UniquePerClassCheck")
+@NumberOfParameters(1)
+@interface Bound {}
+'''
+
+        when:
+        def all = ValidationPlan.of(annotation).steps
+        def steps = [
+                all.find { it.checkName?.endsWith('MustBeStaticCheck') },
+                all.find { it.checkName?.endsWith('UniquePerClassCheck') },
+                all.find { it.kind == ValidationPlan.Kind.VALIDATED }
+        ]
+
+        then:
+        steps*.hasFilters() == [true, false, false]
+        steps[0].getBinding(MustBeStaticCheck).is(steps[0].getBinding(MustBeStaticCheck))
+        steps[0].getBinding(MustBeStaticCheck).declaration.is(steps[0].annotation)
+
+        and: 'name-bound checks keep the metadata of the last resolved type'
+        steps[1].getBinding(UniquePerClassCheck).is(steps[1].getBinding(UniquePerClassCheck))
+        !steps[1].getBinding(MustBeStaticCheck).is(steps[1].getBinding(UniquePerClassCheck))
+
+        and:
+        steps[2].validatedPlan.is(ValidationPlan.of(steps[2].annotation.annotationType()))
+        steps[2].validatedPlan.steps[0].hasFilters()
+    }
+
+    def "planned validation still reports every failing use"() {
+        given:
+        createAnnotation '''
+@Target([ElementType.METHOD])
+@NumberOfParameters(1)
+@interface SingleParameter {}
+'''
+
+        when:
+        createClass '''
+class Uses {
+    @SingleParameter void first(int a) {}
+    @SingleParameter void second() {}
+    @SingleParameter void third() {}
+}
+'''
+
+        then:
+        def failure = thrown(MultipleCompilationErrorsException)
+        failure.message.count('must have 1 parameters') == 2
+    }
+}
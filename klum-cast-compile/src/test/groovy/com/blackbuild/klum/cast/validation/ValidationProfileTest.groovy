@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.validation
+
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.MultipleCompilationErrorsException
+import org.codehaus.groovy.control.Phases
+
+class ValidationProfileTest extends AstSpec {
+
+    def setup() {
+        createAnnotation '''
+@MustBeStatic
+@interface StaticOnly {}
+'''
+    }
+
+    def "the profile aggregates uses, checks and source units and is written after the last source unit"() {
+        given:
+        compilerConfiguration.optimizationOptions[ValidationOptions.PROFILE] = true
+
+        when:
+        compileUnit()
+        def directory = new File(compilerConfiguration.targetDirectory.absoluteFile.parentFile,
+                compilerConfiguration.targetDirectory.name + '-klum-cast.profile')
+        def json = new File(directory, ValidationProfile.JSON_FILE).text
+
+        then:
+        json =~ /"annotationTypes": \[\n    \{"type": "StaticOnly", "uses": 6, "timeNanos": [1-9]\d*, "diagnostics": 3}\n  ]/
+        json =~ /"checks": \[\n    \{"implementation": "[\w.]+MustBeStaticCheck", "invocations": \d+, "timeNanos": \d+, "diagnostics": 3}\n  ]/
+        json.contains('"filters": []')
+        (1..3).every { json =~ /\{"name": "Source${it}.groovy", "transformations": 1, "timeNanos": \d+, "errors": 1}/ }
+        json =~ /"counters": \{\n    "detectionLookups": [1-9]\d*,\n    "detectionHits": [1-9]\d*,\n    "detectionHitRate": 0\.\d+,\n    "indexAnswers": 0,/
+        json.contains('"skippedSourceUnits": 1,\n    "unchangedSourceUnits": 0,\n    "sharedResults": 0,\n    "reusedOutcomes": 2')
+
+        and:
+        new File(directory, ValidationProfile.HTML_FILE).text.contains('<td>StaticOnly</td>')
+        new File(directory, ValidationProfile.HTML_FILE).text.contains('<tr><td>skippedSourceUnits</td><td class="n">1</td></tr>')
+    }
+
+    def "the profile is written into the configured directory"() {
+        given:
+        compilerConfiguration.optimizationOptions[ValidationOptions.PROFILE] = true
+        def directory = new File(compilerConfiguration.targetDirectory, 'profile')
+        System.setProperty(ValidationOptions.PROFILE_DIR, directory.path)
+
+        when:
+        compileUnit()
+
+        then:
+        new File(directory, ValidationProfile.JSON_FILE).isFile()
+
+        cleanup:
+        System.clearProperty(ValidationOptions.PROFILE_DIR)
+    }
+
+    def "without the option no profile is recorded"() {
+        when:
+        compileUnit()
+
+        then:
+        !new File(compilerConfiguration.targetDirectory.absoluteFile.parentFile,
+                compilerConfiguration.targetDirectory.name + '-klum-cast.profile').exists()
+    }
+
+    def "the profile escapes names in both reports"() {
+        given:
+        def profile = new ValidationProfile()
+        profile.enable()
+
+        when:
+        profile.sourceUnitTransformed('a "quoted" <unit>\\', profile.start(), 0)
+
+        then:
+        profile.toJson([:]).contains('{"name": "a \\"quoted\\" <unit>\\\\", "transformations": 1')
+        profile.toHtml([:]).contains('a "quoted" &lt;unit&gt;\\')
+    }
+
+    void compileUnit() {
+        def unit = new CompilationUnit(compilerConfiguration, null, new GroovyClassLoader(loader, compilerConfiguration))
+        (1..3).each { index ->
+            unit.addSource("Source${index}.groovy", """
+class Source$index {
+    @StaticOnly def first() {}
+    @StaticOnly static second() {}
+}
+""")
+        }
+        unit.addSource('Plain.groovy', 'class Plain { def method() {} }')
+        try {
+            unit.compile(Phases.SEMANTIC_ANALYSIS)
+        } catch (MultipleCompilationErrorsException ignored) {
+            // the diagnostics are asserted through the profile
+        }
+    }
+}
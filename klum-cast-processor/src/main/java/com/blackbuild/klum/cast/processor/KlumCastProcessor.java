@@ -0,0 +1,265 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.processor;
+
+import com.blackbuild.klum.cast.spi.internal.DiagnosticTemplate;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Verifies the validation bindings of Java-authored annotation libraries and publishes their validation index.
+ *
+ * <p>Groovy-authored annotations are checked by the compiler while they are validated; Java-authored libraries have no
+ * such hook. This processor reports binding errors while the library itself is compiled: a legacy
+ * {@code @KlumCastValidator} must select exactly one check, its type must implement {@code Check} and its filter
+ * {@code ApplicabilityFilter}, and every {@code @DiagnosticMessage} must use a unique code and a well-formed template.
+ * Typed {@code @CheckBinding} declarations are already checked by javac through their generic bounds. Whether a template
+ * only references declared arguments depends on the definitions of the check instance and is still verified by the
+ * compiler.</p>
+ *
+ * <p>After the last round, the processor writes {@code META-INF/klum-cast/validated-annotations.idx} listing every
+ * validated annotation type of the compilation together with a fingerprint of its meta-annotations, which the compiler
+ * compares against the class file to detect stale entries. The index
+ * claims that unlisted annotation types of the library are not validated, so it must be generated by a complete
+ * compilation of the library; incremental builds that only process a subset of the sources must disable it with
+ * {@code -Aklumcast.index=false}.</p>
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(KlumCastProcessor.INDEX_OPTION)
+public final class KlumCastProcessor extends AbstractProcessor {
+
+    static final String INDEX_OPTION = "klumcast.index";
+    /** Must match the location read by the compiler. */
+    static final String INDEX_LOCATION = "META-INF/klum-cast/validated-annotations.idx";
+
+    private static final String KLUM_CAST_VALIDATED = "com.blackbuild.klum.cast.KlumCastValidated";
+    private static final String KLUM_CAST_VALIDATOR = "com.blackbuild.klum.cast.KlumCastValidator";
+    private static final String KLUM_CAST_VALIDATOR_LIST = KLUM_CAST_VALIDATOR + ".List";
+    private static final String KLUM_CAST_VALIDATOR_NONE = KLUM_CAST_VALIDATOR + ".None";
+    private static final String CHECK_BINDING = "com.blackbuild.klum.cast.spi.CheckBinding";
+    private static final String DIAGNOSTIC_MESSAGES = "com.blackbuild.klum.cast.DiagnosticMessages";
+    private static final String CHECK = "com.blackbuild.klum.cast.spi.Check";
+    private static final String APPLICABILITY_FILTER = "com.blackbuild.klum.cast.spi.ApplicabilityFilter";
+
+    private final Map<String, String> validatedTypes = new TreeMap<>();
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element root : roundEnv.getRootElements()) collect(root);
+        if (roundEnv.processingOver() && !validatedTypes.isEmpty()
+                && !"false".equalsIgnoreCase(processingEnv.getOptions().get(INDEX_OPTION))) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (element.getKind() == ElementKind.ANNOTATION_TYPE) inspect((TypeElement) element);
+        for (Element enclosed : element.getEnclosedElements()) {
+            if (enclosed.getKind().isClass() || enclosed.getKind().isInterface()) collect(enclosed);
+        }
+    }
+
+    private void inspect(TypeElement annotationType) {
+        verifyBindings(annotationType);
+        for (Element member : annotationType.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.METHOD) verifyBindings(member);
+        }
+        if (isValidated(annotationType, new HashSet<>())) {
+            validatedTypes.put(elements.getBinaryName(annotationType).toString(), fingerprint(annotationType));
+        }
+    }
+
+    /** Mirrors the compiler's classification: a binding directly on the type or on one of its meta-annotations. */
+    private boolean isValidated(TypeElement annotationType, Set<String> visited) {
+        if (!visited.add(annotationType.getQualifiedName().toString())) return false;
+        for (AnnotationMirror mirror : annotationType.getAnnotationMirrors()) {
+            String name = nameOf(mirror);
+            if (name.equals(KLUM_CAST_VALIDATED) || name.equals(KLUM_CAST_VALIDATOR) || name.equals(CHECK_BINDING)) return true;
+            if (isValidated((TypeElement) mirror.getAnnotationType().asElement(), visited)) return true;
+        }
+        return false;
+    }
+
+    private void verifyBindings(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            switch (nameOf(mirror)) {
+                case KLUM_CAST_VALIDATOR:
+                    verifyLegacyBinding(element, mirror);
+                    break;
+                case KLUM_CAST_VALIDATOR_LIST:
+                    for (AnnotationValue binding : arrayValue(mirror, "value")) verifyLegacyBinding(element, (AnnotationMirror) binding.getValue());
+                    break;
+                case DIAGNOSTIC_MESSAGES:
+                    verifyMessages(element, mirror);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void verifyLegacyBinding(Element element, AnnotationMirror binding) {
+        boolean hasName = !((String) value(binding, "value").getValue()).isEmpty();
+        boolean hasType = !isNone(value(binding, "type"));
+        if (hasName == hasType) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@KlumCastValidator must select exactly one check binding.", element, binding);
+        } else if (hasType) {
+            verifyType(element, binding, "type", CHECK);
+        }
+        if (!isNone(value(binding, "validFor"))) verifyType(element, binding, "validFor", APPLICABILITY_FILTER);
+    }
+
+    private void verifyMessages(Element element, AnnotationMirror messages) {
+        Set<String> codes = new HashSet<>();
+        for (AnnotationValue entry : arrayValue(messages, "value")) {
+            AnnotationMirror message = (AnnotationMirror) entry.getValue();
+            String code = (String) value(message, "code").getValue();
+            if (!codes.add(code)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Diagnostic message code " + code + " is declared more than once", element, message);
+                continue;
+            }
+            try {
+                DiagnosticTemplate.compile((String) value(message, "template").getValue());
+            } catch (IllegalArgumentException exception) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Invalid template for " + code + ": " + exception.getMessage(), element, message);
+            }
+        }
+    }
+
+    private void verifyType(Element element, AnnotationMirror mirror, String member, String requiredType) {
+        AnnotationValue value = value(mirror, member);
+        if (!(value.getValue() instanceof TypeMirror)) return; // unresolved types are reported by javac itself
+        TypeMirror configured = (TypeMirror) value.getValue();
+        TypeElement required = elements.getTypeElement(requiredType);
+        if (configured.getKind() == TypeKind.ERROR || required == null) return;
+        if (!types.isAssignable(types.erasure(configured), types.erasure(required.asType()))) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Configured " + (requiredType.equals(CHECK) ? "check " : "filter ")
+                    + configured + " does not implement " + requiredType, element, mirror, value);
+        }
+    }
+
+    private boolean isNone(AnnotationValue value) {
+        Object type = value.getValue();
+        return type instanceof TypeMirror && types.erasure((TypeMirror) type).toString().equals(KLUM_CAST_VALIDATOR_NONE);
+    }
+
+    /** Must match {@code ValidationIndex.fingerprintOf}: the sorted binary names of the runtime meta-annotations. */
+    private String fingerprint(TypeElement annotationType) {
+        Set<String> names = new TreeSet<>();
+        for (AnnotationMirror mirror : annotationType.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            Retention retention = type.getAnnotation(Retention.class);
+            if (retention != null && retention.value() == RetentionPolicy.RUNTIME) names.add(elements.getBinaryName(type).toString());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String name : names) digest.update((name + '\n').getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest();
+            StringBuilder hex = new StringBuilder();
+            for (int index = 0; index < 16; index++) hex.append(String.format("%02x", hash[index]));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                writer.write("# Generated by " + KlumCastProcessor.class.getName() + "\n");
+                for (Map.Entry<String, String> entry : validatedTypes.entrySet()) {
+                    writer.write(entry.getKey() + " " + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException exception) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not write " + INDEX_LOCATION + ": " + exception.getMessage());
+        }
+    }
+
+    private AnnotationValue value(AnnotationMirror mirror, String member) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(member)) return entry.getValue();
+        }
+        throw new IllegalStateException(nameOf(mirror) + " has no member " + member);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<? extends AnnotationValue> arrayValue(AnnotationMirror mirror, String member) {
+        return (List<? extends AnnotationValue>) value(mirror, member).getValue();
+    }
+
+    private static String nameOf(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+}
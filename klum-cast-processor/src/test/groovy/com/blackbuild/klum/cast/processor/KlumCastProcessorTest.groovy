@@ -0,0 +1,209 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.processor
+
+import org.intellij.lang.annotations.Language
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import javax.tools.Diagnostic
+import javax.tools.DiagnosticCollector
+import javax.tools.JavaFileObject
+import javax.tools.ToolProvider
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.stream.Collectors
+
+class KlumCastProcessorTest extends Specification {
+
+    @TempDir Path workDir
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>()
+
+    def "validated annotation types of the compilation are published in the validation index"() {
+        given:
+        source 'lib/Validated.java', '''
+package lib;
+import com.blackbuild.klum.cast.*;
+import com.blackbuild.klum.cast.checks.*;
+import com.blackbuild.klum.cast.spi.*;
+import java.lang.annotation.*;
+import java.util.List;
+
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@MustBeStatic
+public @interface Validated {
+    @Retention(RetentionPolicy.RUNTIME)
+    @CheckBinding(Nested.NestedCheck.class)
+    @DiagnosticMessages(@DiagnosticMessage(code = "lib.nested", template = "{name} is wrong"))
+    @interface Nested {
+        class NestedCheck implements Check {
+            public List<Diagnostic> check(CheckContext context) { return List.of(); }
+        }
+    }
+}
+'''
+        source 'lib/Plain.java', '''
+package lib;
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Plain {}
+'''
+
+        when:
+        def success = compile()
+
+        then:
+        success
+        def entries = indexEntries()
+        entries.keySet() == ['lib.Validated', 'lib.Validated$Nested'] as Set
+        entries.values().every { it ==~ /[0-9a-f]{32}/ }
+    }
+
+    def "fingerprints change with the meta-annotations"() {
+        given:
+        source 'lib/Validated.java', '''
+package lib;
+import com.blackbuild.klum.cast.*;
+import com.blackbuild.klum.cast.checks.*;
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@NumberOfParameters(1)
+public @interface Validated {}
+'''
+        compile()
+        def first = indexEntries()['lib.Validated']
+
+        when:
+        source 'lib/Validated.java', '''
+package lib;
+import com.blackbuild.klum.cast.*;
+import com.blackbuild.klum.cast.checks.*;
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@MustBeStatic
+@Documented
+public @interface Validated {}
+'''
+        compile()
+
+        then:
+        indexEntries()['lib.Validated'] != first
+    }
+
+    def "invalid legacy bindings and diagnostic messages fail the library compilation"() {
+        given:
+        source 'lib/Broken.java', '''
+package lib;
+import com.blackbuild.klum.cast.*;
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidator(value = "lib.SomeCheck", type = Object.class)
+@KlumCastValidator(type = Object.class, validFor = Object.class)
+@DiagnosticMessages({
+        @DiagnosticMessage(code = "lib.code", template = "open {name"),
+        @DiagnosticMessage(code = "lib.code", template = "fine")
+})
+public @interface Broken {}
+'''
+
+        when:
+        def success = compile()
+
+        then:
+        !success
+        errors().toSet() == [
+                '@KlumCastValidator must select exactly one check binding.',
+                'Configured check java.lang.Object does not implement com.blackbuild.klum.cast.spi.Check',
+                'Configured filter java.lang.Object does not implement com.blackbuild.klum.cast.spi.ApplicabilityFilter',
+                "Invalid template for lib.code: Unclosed diagnostic template argument in 'open {name'",
+                'Diagnostic message code lib.code is declared more than once'
+        ] as Set
+    }
+
+    def "index generation can be disabled for partial compilations"() {
+        given:
+        source 'lib/Validated.java', '''
+package lib;
+import com.blackbuild.klum.cast.*;
+import com.blackbuild.klum.cast.checks.*;
+import java.lang.annotation.*;
+
+@Retention(RetentionPolicy.RUNTIME)
+@KlumCastValidated
+@MustBeStatic
+public @interface Validated {}
+'''
+
+        when:
+        def success = compile('-Aklumcast.index=false')
+
+        then:
+        success
+        !Files.exists(output.resolve(KlumCastProcessor.INDEX_LOCATION))
+    }
+
+    Path getOutput() {
+        workDir.resolve('classes')
+    }
+
+    void source(String path, @Language("java") String code) {
+        def file = workDir.resolve('src').resolve(path)
+        Files.createDirectories(file.parent)
+        Files.writeString(file, code)
+    }
+
+    boolean compile(String... options) {
+        def compiler = ToolProvider.systemJavaCompiler
+        Files.createDirectories(output)
+        def fileManager = compiler.getStandardFileManager(diagnostics, null, null)
+        def sources = Files.walk(workDir.resolve('src')).withCloseable { paths ->
+            paths.filter { it.toString().endsWith('.java') }.map { it.toFile() }.collect(Collectors.toList())
+        }
+        def arguments = ['-d', output.toString(), '-classpath', System.getProperty('java.class.path'),
+                         '-processor', KlumCastProcessor.name] + options.toList()
+        try {
+            return compiler.getTask(null, fileManager, diagnostics, arguments, null,
+                    fileManager.getJavaFileObjectsFromFiles(sources)).call()
+        } finally {
+            fileManager.close()
+        }
+    }
+
+    Map<String, String> indexEntries() {
+        Files.readAllLines(output.resolve(KlumCastProcessor.INDEX_LOCATION))
+                .findAll { !it.startsWith('#') }
+                .collectEntries { it.split(' ') as List }
+    }
+
+    List<String> errors() {
+        diagnostics.diagnostics.findAll { it.kind == Diagnostic.Kind.ERROR }*.getMessage(Locale.ROOT)
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.spi;
+
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable index of the annotations declared on a class and its members.
+ *
+ * <p>The index covers the class itself, its fields, constructors, methods, and their parameters, in the order the
+ * compiler visits them. Properties are not indexed separately because their annotations are found on the generated
+ * field or accessors. Class-scoped checks use the index instead of scanning the class for every use; the compiler
+ * builds it once per class and compilation and hands it out through {@link CheckContext#getAnnotationIndex()}.</p>
+ */
+public final class AnnotationIndex {
+
+    private final ClassNode owner;
+    private final Map<String, List<AnnotatedNode>> nodesByAnnotation = new LinkedHashMap<>();
+    private final Map<AnnotatedNode, Set<String>> annotationsByNode = new IdentityHashMap<>();
+
+    private AnnotationIndex(ClassNode owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Scans a class. Prefer {@link CheckContext#getAnnotationIndex()}, which shares one index per class.
+     *
+     * @param owner the class to index
+     * @return the index of the class in its current state
+     */
+    public static AnnotationIndex of(ClassNode owner) {
+        AnnotationIndex index = new AnnotationIndex(Objects.requireNonNull(owner, "owner"));
+        index.add(owner);
+        for (FieldNode field : owner.getFields()) index.add(field);
+        for (MethodNode constructor : owner.getDeclaredConstructors()) index.addWithParameters(constructor);
+        for (MethodNode method : owner.getMethods()) index.addWithParameters(method);
+        return index;
+    }
+
+    /** @return the indexed class */
+    public ClassNode getOwner() { return owner; }
+
+    /**
+     * @param annotationTypeName the fully qualified annotation type name
+     * @return the indexed nodes carrying the annotation, in visiting order
+     */
+    public List<AnnotatedNode> getAnnotatedNodes(String annotationTypeName) {
+        return nodesByAnnotation.getOrDefault(annotationTypeName, Collections.emptyList());
+    }
+
+    /**
+     * Returns the names of the annotation types declared on a node. Nodes outside the index are scanned on demand.
+     *
+     * @param node the annotated node
+     * @return the fully qualified annotation type names, in declaration order
+     */
+    public Set<String> getAnnotationNames(AnnotatedNode node) {
+        Set<String> names = annotationsByNode.get(node);
+        return names != null ? names : namesOf(node);
+    }
+
+    /**
+     * @param annotationTypeName the fully qualified annotation type name
+     * @return whether the indexed class itself carries the annotation
+     */
+    public boolean isClassAnnotatedWith(String annotationTypeName) {
+        return getAnnotationNames(owner).contains(annotationTypeName);
+    }
+
+    private void addWithParameters(MethodNode method) {
+        add(method);
+        for (Parameter parameter : method.getParameters()) add(parameter);
+    }
+
+    private void add(AnnotatedNode node) {
+        Set<String> names = namesOf(node);
+        annotationsByNode.put(node, names);
+        for (String name : names) nodesByAnnotation.computeIfAbsent(name, ignored -> new ArrayList<>(1)).add(node);
+    }
+
+    private static Set<String> namesOf(AnnotatedNode node) {
+        List<AnnotationNode> annotations = node.getAnnotations();
+        if (annotations.isEmpty()) return Collections.emptySet();
+        Set<String> names = new LinkedHashSet<>();
+        for (AnnotationNode annotation : annotations) names.add(annotation.getClassNode().getName());
+        return Collections.unmodifiableSet(names);
+    }
+}
@@ -26,7 +26,8 @@ package com.blackbuild.klum.cast.spi;
 /**
  * Determines whether a validation binding applies to an invocation.
  *
- * <p>Filters are stateless and have the same no-argument-constructor lifecycle as {@link Check} implementations.
+ * <p>Filters are stateless and have the same no-argument-constructor lifecycle as {@link Check} implementations,
+ * including the {@link ThreadSafe} opt-in to concurrent invocation.
  * A {@code false} result means not applicable, not a successful check result. Multiple filters on one binding are
  * conjunctive.</p>
  */
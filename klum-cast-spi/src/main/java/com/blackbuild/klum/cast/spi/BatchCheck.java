@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.spi;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates all uses of one binding within a class in a single call.
+ *
+ * <p>Uniqueness, counting, and consistency constraints need to see every use of their binding. The compiler collects
+ * the applicable invocation contexts of a class in source order and calls {@link #checkAll(List)} once after the
+ * class has been visited. The resulting diagnostics are reported after the per-use diagnostics of that class.</p>
+ *
+ * <p>The outcome of an OR composition branch must be known per use. Inside {@code @OneCheckMustMatch} branches the
+ * compiler therefore calls {@link #check(CheckContext)} for each use instead. The same lifecycle and statelessness
+ * rules as for {@link Check} apply.</p>
+ */
+public interface BatchCheck extends Check {
+
+    /**
+     * Evaluates this check for all applicable uses of its binding within one class.
+     *
+     * @param contexts the invocation data of every use, in source order
+     * @return the expected constraint diagnostics per context; contexts without diagnostics may be omitted
+     */
+    Map<CheckContext, List<Diagnostic>> checkAll(List<CheckContext> contexts);
+
+    /**
+     * Evaluates this check for a single use, as if it were the only use in its class.
+     *
+     * @param context the invocation data
+     * @return zero or more expected constraint diagnostics
+     */
+    @Override
+    default List<Diagnostic> check(CheckContext context) {
+        List<Diagnostic> diagnostics = checkAll(List.of(context)).get(context);
+        return diagnostics != null ? diagnostics : List.of();
+    }
+}
@@ -29,8 +29,14 @@ import java.util.List;
  * Validates one use of a validated annotation.
  *
  * <p>Implementations must have an accessible no-argument constructor and must be stateless. The compiler owns their
- * lifecycle and may reuse an instance within one compilation, but never across compilation runs. A returned diagnostic
- * describes an expected constraint violation; thrown exceptions are technical failures and retain their cause.</p>
+ * lifecycle and may reuse an instance within one compilation, but never across compilation runs. An instance is never
+ * invoked concurrently unless its implementation is marked {@link ThreadSafe}. A returned diagnostic describes an
+ * expected constraint violation; thrown exceptions are technical failures and retain their cause.</p>
+ *
+ * <p>With incremental validation, the outcome of a check must only depend on declarations: those of the validated
+ * source unit and those of the types it references directly, including their type hierarchies. Method bodies and the
+ * declarations of types that are only referenced by other referenced types are not tracked, so a check reading them
+ * may see a stale result.</p>
  */
 public interface Check {
 
@@ -25,6 +25,7 @@ package com.blackbuild.klum.cast.spi;
 
 import org.codehaus.groovy.ast.AnnotatedNode;
 import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
@@ -46,15 +47,27 @@ public final class CheckContext {
     private final String memberName;
     private final BindingMetadata binding;
     private final List<Annotation> compositionPath;
+    private final AnnotationIndex annotationIndex;
 
     public CheckContext(AnnotationNode validatedAnnotation, AnnotatedNode target, Annotation controlAnnotation,
                         String memberName, BindingMetadata binding, List<Annotation> compositionPath) {
+        this(validatedAnnotation, target, controlAnnotation, memberName, binding, compositionPath, null);
+    }
+
+    /**
+     * @param annotationIndex the shared index of the class declaring the target, or {@code null} to scan the class on
+     *                        demand
+     */
+    public CheckContext(AnnotationNode validatedAnnotation, AnnotatedNode target, Annotation controlAnnotation,
+                        String memberName, BindingMetadata binding, List<Annotation> compositionPath,
+                        AnnotationIndex annotationIndex) {
         this.validatedAnnotation = Objects.requireNonNull(validatedAnnotation, "validatedAnnotation");
         this.target = Objects.requireNonNull(target, "target");
         this.controlAnnotation = controlAnnotation;
         this.memberName = memberName;
         this.binding = Objects.requireNonNull(binding, "binding");
         this.compositionPath = List.copyOf(compositionPath);
+        this.annotationIndex = annotationIndex;
     }
 
     /** @return the use of the validated annotation being checked */
@@ -94,4 +107,21 @@ public final class CheckContext {
 
     /** @return immutable ordered annotations through which the binding was reached */
     public List<Annotation> getCompositionPath() { return compositionPath; }
+
+    /**
+     * Returns the annotation index of the class declaring the target, or of the target itself if it is a class.
+     *
+     * <p>Contexts created by the compiler share one index per class and compilation. Contexts created without an index
+     * scan the class on every call.</p>
+     *
+     * @return the index of the class declaring the target
+     * @throws IllegalStateException if the target has no declaring class, for example a parameter in a context created
+     *                               without an index
+     */
+    public AnnotationIndex getAnnotationIndex() {
+        if (annotationIndex != null) return annotationIndex;
+        ClassNode owner = target instanceof ClassNode ? (ClassNode) target : target.getDeclaringClass();
+        if (owner == null) throw new IllegalStateException("Target " + target.getText() + " has no declaring class");
+        return AnnotationIndex.of(owner);
+    }
 }
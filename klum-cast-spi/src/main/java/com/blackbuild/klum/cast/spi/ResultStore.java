@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.spi;
+
+import java.io.IOException;
+
+/**
+ * Content-addressed store of passing validation results, shared between builds and machines.
+ *
+ * <p>A key is the hex encoded SHA-256 digest of the complete validation input of one source unit: its declarations
+ * and annotation uses, the class files of the validation annotations and checks involved, and the KlumCast compiler
+ * itself. Equal keys therefore always denote equal outcomes, and a stored key never becomes stale. Only passing
+ * results are stored; units with diagnostics are always validated.</p>
+ *
+ * <p>Stores are obtained from a {@link ResultStoreProvider} and used by one compilation at a time. A failing store
+ * never fails the compilation: KlumCast stops using it and validates every remaining unit.</p>
+ */
+public interface ResultStore {
+
+    /**
+     * @param key the content hash of a validation input
+     * @return whether a validation of that input passed before
+     * @throws IOException if the store cannot be read
+     */
+    boolean hasPassed(String key) throws IOException;
+
+    /**
+     * Records that the validation of an input passed. Recording a key twice has no effect.
+     *
+     * @param key the content hash of a validation input
+     * @throws IOException if the store cannot be written
+     */
+    void passed(String key) throws IOException;
+}
@@ -0,0 +1,44 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.spi;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Opens {@link ResultStore}s for the location configured by the {@code klumcast.store} system property.
+ *
+ * <p>Providers are discovered with {@link java.util.ServiceLoader} from the class loader of the KlumCast compiler
+ * and asked in turn until one accepts the location. KlumCast ships providers for {@code file} directories and
+ * {@code http} and {@code https} servers.</p>
+ */
+public interface ResultStoreProvider {
+
+    /**
+     * @param location the configured store location
+     * @return the store, or {@code null} if this provider does not handle the location
+     * @throws IOException if the location is handled but the store cannot be opened
+     */
+    ResultStore open(URI location) throws IOException;
+}
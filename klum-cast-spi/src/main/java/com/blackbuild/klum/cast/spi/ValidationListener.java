@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.spi;
+
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+
+/**
+ * Observes the validation engine, for example to collect metrics in a test harness.
+ *
+ * <p>Listeners are discovered once with {@link java.util.ServiceLoader} from the class loader of the KlumCast compiler
+ * and called in discovery order. Without a registered listener, the engine skips every notification behind a single
+ * constant check. Listeners are called on the validating thread, which differs between source units with parallel or
+ * batch validation, so they must be thread-safe. They must neither change the AST nor throw: an exception fails the
+ * compilation with a technical failure naming the listener, not the check being observed.</p>
+ *
+ * <p>All methods do nothing by default.</p>
+ */
+public interface ValidationListener {
+
+    /** The outcome of one OR branch. */
+    enum Outcome { NOT_APPLICABLE, PASSED, FAILED }
+
+    /**
+     * Called before a use of a validated annotation is validated.
+     *
+     * @param annotation the validated annotation use
+     * @param target the node carrying the use
+     */
+    default void useStarted(AnnotationNode annotation, AnnotatedNode target) {}
+
+    /**
+     * Called after a use was validated.
+     *
+     * @param annotation the validated annotation use
+     * @param target the node carrying the use
+     * @param diagnostics the diagnostics of the use, without those of deferred batch checks
+     */
+    default void useFinished(AnnotationNode annotation, AnnotatedNode target, List<Diagnostic> diagnostics) {}
+
+    /**
+     * Called after an {@link ApplicabilityFilter} decided whether a binding applies.
+     *
+     * @param filter the filter
+     * @param context the context the filter decided on
+     * @param applies the decision of the filter
+     */
+    default void filterDecided(ApplicabilityFilter filter, CheckContext context, boolean applies) {}
+
+    /**
+     * Called before a check is invoked. Deterministic checks answered from an earlier identical use are not invoked.
+     * For a {@link BatchCheck}, every deferred context is started before the single batch invocation.
+     *
+     * @param context the invocation
+     */
+    default void checkStarted(CheckContext context) {}
+
+    /**
+     * Called after a check returned and its diagnostics were accepted.
+     *
+     * @param context the invocation
+     * @param diagnostics the accepted diagnostics of this invocation
+     */
+    default void checkFinished(CheckContext context, List<Diagnostic> diagnostics) {}
+
+    /**
+     * Called after one branch of an OR composition was evaluated.
+     *
+     * @param annotation the validated annotation use
+     * @param target the node carrying the use
+     * @param branch the branch annotation
+     * @param outcome the outcome of the branch
+     */
+    default void orBranchEvaluated(AnnotationNode annotation, AnnotatedNode target, Annotation branch, Outcome outcome) {}
+
+    /**
+     * Called when a diagnostic is reported to the compiler. Diagnostics of failing OR branches are only reported if no
+     * branch passed.
+     *
+     * @param diagnostic the reported diagnostic
+     */
+    default void diagnosticEmitted(Diagnostic diagnostic) {}
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Stephan Pauxberger
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.blackbuild.klum.cast.spi.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compiled diagnostic message template in the deliberately small named-argument syntax of
+ * {@code @DiagnosticMessage}.
+ *
+ * <p>A template is parsed once into an immutable list of literal and argument segments; rendering is a single pass
+ * over the segments. The class is shared by the compiler and the KlumCast annotation processor, so both apply the same
+ * syntax. It is not part of the check SPI.</p>
+ */
+public final class DiagnosticTemplate {
+
+    private final String source;
+    private final String[] literals;
+    private final String[] arguments;
+    private final Set<String> argumentNames;
+
+    private DiagnosticTemplate(String source, String[] literals, String[] arguments) {
+        this.source = source;
+        this.literals = literals;
+        this.arguments = arguments;
+        this.argumentNames = Collections.unmodifiableSet(new LinkedHashSet<>(List.of(arguments)));
+    }
+
+    /**
+     * Parses a template.
+     *
+     * @param template the template source
+     * @return the compiled template
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    public static DiagnosticTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (int index = 0; index < template.length(); index++) {
+            char character = template.charAt(index);
+            if (character == '{') {
+                if (index + 1 < template.length() && template.charAt(index + 1) == '{') {
+                    literal.append('{');
+                    index++;
+                    continue;
+                }
+                int end = template.indexOf('}', index + 1);
+                if (end < 0) throw new IllegalArgumentException("Unclosed diagnostic template argument in '" + template + "'");
+                String name = template.substring(index + 1, end);
+                if (!isName(name)) {
+                    throw new IllegalArgumentException("Unknown diagnostic template argument '" + name + "' in '" + template + "'");
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                arguments.add(name);
+                index = end;
+            } else if (character == '}') {
+                if (index + 1 < template.length() && template.charAt(index + 1) == '}') {
+                    literal.append('}');
+                    index++;
+                } else {
+                    throw new IllegalArgumentException("Unescaped '}' in diagnostic template '" + template + "'");
+                }
+            } else {
+                literal.append(character);
+            }
+        }
+        literals.add(literal.toString());
+        return new DiagnosticTemplate(template, literals.toArray(new String[0]), arguments.toArray(new String[0]));
+    }
+
+    /** @return the names of all referenced arguments */
+    public Set<String> getArgumentNames() { return argumentNames; }
+
+    /**
+     * @param allowedArguments the arguments declared for the diagnostic code
+     * @throws IllegalArgumentException if the template references an undeclared argument
+     */
+    public void validate(Set<String> allowedArguments) {
+        for (String name : arguments) {
+            if (!allowedArguments.contains(name)) {
+                throw new IllegalArgumentException("Unknown diagnostic template argument '" + name + "' in '" + source + "'");
+            }
+        }
+    }
+
+    /**
+     * @param values the arguments of the emitted diagnostic
+     * @return the rendered message
+     * @throws IllegalArgumentException if the template references an argument missing from the diagnostic
+     */
+    public String render(Map<String, Object> values) {
+        validate(values.keySet());
+        StringBuilder rendered = new StringBuilder(source.length() + 16 * arguments.length);
+        rendered.append(literals[0]);
+        for (int index = 0; index < arguments.length; index++) {
+            rendered.append(values.get(arguments[index])).append(literals[index + 1]);
+        }
+        return rendered.toString();
+    }
+
+    private static boolean isName(String name) {
+        if (name.isEmpty()) return false;
+        for (int index = 0; index < name.length(); index++) {
+            char character = name.charAt(index);
+            if (!Character.isLetterOrDigit(character) && character != '_') return false;
+        }
+        return true;
+    }
+}